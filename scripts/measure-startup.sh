@@ -0,0 +1,34 @@
+#!/bin/bash
+# Measure time-to-ready of a task-service container
+# Usage: ./scripts/measure-startup.sh [image] [runs]
+# Requires the docker-compose database to be running (docker-compose up -d db)
+#
+# Compare a plain JAR image against the AppCDS image, e.g.:
+#   docker build -f Dockerfile.ci -t task-service:plain .
+#   docker build -t task-service:cds .
+#   ./scripts/measure-startup.sh task-service:plain 5
+#   ./scripts/measure-startup.sh task-service:cds 5
+
+set -e
+
+IMAGE="${1:-task-service:latest}"
+RUNS="${2:-3}"
+PORT=18080
+NETWORK="$(docker inspect task-db --format '{{range $k, $v := .NetworkSettings.Networks}}{{$k}}{{end}}')"
+
+for i in $(seq 1 "$RUNS"); do
+  START=$(date +%s%N)
+  CID=$(docker run -d --rm --network "$NETWORK" -p $PORT:8080 \
+    -e SPRING_DATASOURCE_URL=jdbc:postgresql://task-db:5432/taskdb \
+    -e SPRING_DATASOURCE_USERNAME=taskuser \
+    -e SPRING_DATASOURCE_PASSWORD=taskpass \
+    "$IMAGE")
+
+  until curl -sf "http://localhost:$PORT/health/ready" > /dev/null; do
+    sleep 0.05
+  done
+
+  END=$(date +%s%N)
+  echo "Run $i: ready after $(( (END - START) / 1000000 )) ms"
+  docker stop "$CID" > /dev/null
+done
@@ -0,0 +1,117 @@
+package com.example.taskservice.dto;
+
+import com.example.taskservice.dto.TaskJsonWriter.TaskArray;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Task list serialization: TaskDTO list + ObjectMapper (the old
+ * TaskController path) vs. TaskJsonWriter.
+ *
+ * Run with the GC profiler to see bytes allocated per list
+ * (gc.alloc.rate.norm):
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="TaskJsonBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"10", "500"})
+    private int taskCount;
+
+    private ObjectMapper objectMapper;
+    private TaskJsonWriter taskJsonWriter;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same settings Spring Boot applies for LocalDateTime
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        taskJsonWriter = new TaskJsonWriter(objectMapper);
+
+        tasks = new ArrayList<>(taskCount);
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new BenchmarkTask("Task " + i, i % 3 == 0 ? null : "Description of task " + i);
+            task.setId((long) i + 1);
+            task.setStatus(statuses[i % statuses.length]);
+            if (i % 2 == 0) {
+                task.setDueAt(task.getCreatedAt().plusDays(i % 30));
+            }
+            tasks.add(task);
+        }
+
+        // Both paths must produce the same JSON
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        dtoList(expected);
+        directWriter(actual);
+        if (!Arrays.equals(expected.toByteArray(), actual.toByteArray())) {
+            throw new IllegalStateException("TaskJsonWriter output differs from TaskDTO serialization");
+        }
+    }
+
+    @Benchmark
+    public void dtoList() throws IOException {
+        dtoList(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void directWriter() throws IOException {
+        directWriter(OutputStream.nullOutputStream());
+    }
+
+    private void dtoList(OutputStream out) throws IOException {
+        List<TaskDTO> taskDTOs = tasks.stream()
+                .map(TaskDTO::fromEntity)
+                .collect(Collectors.toList());
+        objectMapper.writeValue(out, taskDTOs);
+    }
+
+    private void directWriter(OutputStream out) throws IOException {
+        try (TaskArray array = taskJsonWriter.openArray(out)) {
+            tasks.forEach(array::write);
+        }
+    }
+
+    /**
+     * Task with timestamps set as if it had been persisted.
+     */
+    private static final class BenchmarkTask extends Task {
+        private BenchmarkTask(String title, String description) {
+            super(title, description);
+            onCreate();
+        }
+    }
+}
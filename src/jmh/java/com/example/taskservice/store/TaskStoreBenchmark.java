@@ -0,0 +1,134 @@
+package com.example.taskservice.store;
+
+import com.example.taskservice.TaskServiceApplication;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService on the JPA (PostgreSQL) store vs. the embedded journal store.
+ *
+ * Each fork starts the application (without the web server) on the given
+ * engine and creates taskCount tasks, which are deleted again at the end.
+ * The jpa runs need a PostgreSQL database; use a throwaway one:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="TaskStoreBenchmark \
+ *     -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://localhost:5433/taskdb"
+ * Only the journal runs:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="TaskStoreBenchmark -p engine=journal"
+ *
+ * The journal store forces every write to disk (sync-every-write), as
+ * PostgreSQL does on commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskStoreBenchmark {
+
+    // Visits every task once per cycle, in an order the caches can't predict
+    private static final int STRIDE = 7919;
+
+    @Param({"journal", "jpa"})
+    private String engine;
+
+    @Param({"10000"})
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private Path journalDir;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(TaskServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "taskservice.warmup.enabled=false",
+                        "taskservice.due.enabled=false",
+                        "taskservice.sql.enabled=false",
+                        "taskservice.jfr.events-enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.taskservice=WARN",
+                        "logging.level.org.hibernate.SQL=WARN");
+        if ("journal".equals(engine)) {
+            journalDir = Files.createTempDirectory("task-journal-benchmark");
+            application.profiles("journal")
+                    .properties("taskservice.storage.journal.dir=" + journalDir);
+        }
+        context = application.run();
+        taskService = context.getBean(TaskService.class);
+
+        ids = new long[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("Benchmark task " + i, "Created by TaskStoreBenchmark");
+            ids[i] = taskService.createTask(task).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (long id : ids) {
+            if (id != 0) {
+                taskService.deleteTask(id);
+            }
+        }
+        context.close();
+        if (journalDir != null) {
+            FileSystemUtils.deleteRecursively(journalDir);
+        }
+    }
+
+    @Benchmark
+    public Task getTaskById() {
+        return taskService.getTaskById(nextId());
+    }
+
+    @Benchmark
+    public List<Task> statusPage() {
+        return taskService.getTasksByStatus(TaskStatus.PENDING, 0, 50);
+    }
+
+    @Benchmark
+    public List<Task> searchByTitle() {
+        // Matches "Benchmark task 42", "... 420" to "... 429", "... 4200" to "... 4299"
+        return taskService.searchTasks("task 42");
+    }
+
+    @Benchmark
+    public Task updateStatus() {
+        TaskStatus status = next % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.PENDING;
+        return taskService.updateTaskStatus(nextId(), status);
+    }
+
+    private long nextId() {
+        next = (next + STRIDE) % ids.length;
+        return ids[next];
+    }
+}
@@ -2,6 +2,7 @@ package com.example.taskservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Task Service application.
@@ -10,8 +11,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @Configuration: Marks this class as a source of bean definitions
  * - @EnableAutoConfiguration: Tells Spring Boot to configure beans based on classpath
  * - @ComponentScan: Tells Spring to scan for components in this package and below
+ * 
+ * @EnableScheduling activates @Scheduled background jobs (e.g. TaskPartitionManager)
  */
 @SpringBootApplication
+@EnableScheduling
 public class TaskServiceApplication {
 
     public static void main(String[] args) {
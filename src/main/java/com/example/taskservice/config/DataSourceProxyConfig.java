@@ -0,0 +1,58 @@
+package com.example.taskservice.config;
+
+import com.example.taskservice.sql.SqlStatementListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the JDBC DataSource with datasource-proxy so every statement goes
+ * through SqlStatementListener (per-request counting, slow-query log).
+ *
+ * Why a BeanPostProcessor?
+ * - Keeps Spring Boot's DataSource auto-configuration (Hikari settings etc.)
+ * - Everything using the DataSource bean (JPA, Flyway, health checks) sees
+ *   the proxy; Hikari metrics still work because the proxy unwraps to Hikari
+ *
+ * Disable with taskservice.sql.enabled=false. Bind parameters and EXPLAIN
+ * plans of slow queries are off unless enabled (see application-dev.yaml).
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskservice.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    // static: BeanPostProcessors are created before regular beans
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+        Duration slowQueryThreshold = environment.getProperty(
+                "taskservice.sql.slow-query-threshold", Duration.class, Duration.ofMillis(200));
+        boolean logParameters = environment.getProperty(
+                "taskservice.sql.log-parameters", Boolean.class, false);
+        boolean explainSlowQueries = environment.getProperty(
+                "taskservice.sql.explain-slow-queries", Boolean.class, false);
+        Duration explainInterval = environment.getProperty(
+                "taskservice.sql.explain-interval", Duration.class, Duration.ofMinutes(1));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    SqlStatementListener listener = new SqlStatementListener(dataSource,
+                            slowQueryThreshold, logParameters, explainSlowQueries, explainInterval);
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.taskservice.config;
+
+import com.example.taskservice.sharding.ShardRouter;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Flyway startup configuration.
+ *
+ * By default every replica runs flyway.migrate() on startup, which validates
+ * the checksum of every applied migration even when there is nothing to do.
+ *
+ * With taskservice.flyway.skip-when-current=true, only the replica that finds
+ * pending migrations (the first pod of a rollout) runs Flyway. Pods added
+ * later by the HPA see an up-to-date schema and skip it entirely.
+ * Hibernate's ddl-auto=validate still guards against a mismatched schema.
+ * 
+ * With sharding, every shard database is migrated, each with its own
+ * shardIndex placeholder (used by the V4 migration for task IDs).
+ */
+@Configuration
+public class FlywayConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FlywayConfig.class);
+
+    private static final Pattern VERSIONED_MIGRATION = Pattern.compile("^V([0-9_.]+)__.*\\.sql$");
+    private static final String SHARD_INDEX_PLACEHOLDER = "shardIndex";
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            ShardRouter shardRouter,
+            @Value("${taskservice.flyway.skip-when-current:false}") boolean skipWhenCurrent) {
+        return flyway -> {
+            if (!shardRouter.isSharded()) {
+                migrate(flyway, skipWhenCurrent, "Database");
+                return;
+            }
+
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put(SHARD_INDEX_PLACEHOLDER, String.valueOf(shard));
+
+                Flyway shardFlyway = Flyway.configure(flyway.getConfiguration().getClassLoader())
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardRouter.shardDataSource(shard))
+                        .placeholders(placeholders)
+                        .load();
+                migrate(shardFlyway, skipWhenCurrent, "Shard " + shard);
+            }
+        };
+    }
+
+    private void migrate(Flyway flyway, boolean skipWhenCurrent, String database) {
+        if (skipWhenCurrent && isSchemaCurrent(flyway)) {
+            log.info("{} schema is already at the latest version, skipping Flyway migration", database);
+            return;
+        }
+        flyway.migrate();
+    }
+
+    /**
+     * Compares the newest successfully applied version in the schema history
+     * table with the newest versioned script bundled in this build.
+     * Any failure (e.g. no history table yet) means "not current".
+     */
+    private boolean isSchemaCurrent(Flyway flyway) {
+        MigrationVersion bundled = latestBundledVersion(flyway);
+        if (bundled == null) {
+            return false;
+        }
+
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        String table = flyway.getConfiguration().getTable();
+        String sql = "SELECT version FROM " + table + " WHERE success AND version IS NOT NULL";
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            MigrationVersion applied = MigrationVersion.EMPTY;
+            while (rs.next()) {
+                MigrationVersion version = MigrationVersion.fromVersion(rs.getString(1));
+                if (version.isNewerThan(applied.getVersion())) {
+                    applied = version;
+                }
+            }
+            return applied.isAtLeast(bundled.getVersion());
+        } catch (SQLException e) {
+            log.debug("Could not read Flyway schema history, running migration", e);
+            return false;
+        }
+    }
+
+    private MigrationVersion latestBundledVersion(Flyway flyway) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        MigrationVersion latest = null;
+        try {
+            for (var location : flyway.getConfiguration().getLocations()) {
+                String pattern = "classpath*:" + location.getPath() + "/V*__*.sql";
+                for (Resource resource : resolver.getResources(pattern)) {
+                    Matcher matcher = VERSIONED_MIGRATION.matcher(resource.getFilename());
+                    if (matcher.matches()) {
+                        MigrationVersion version = MigrationVersion.fromVersion(matcher.group(1));
+                        if (latest == null || version.isNewerThan(latest.getVersion())) {
+                            latest = version;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not list bundled migrations", e);
+            return null;
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.taskservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The JDBC DataSource when the reactive API is enabled (reactive profile).
+ *
+ * Spring Boot's DataSource auto-configuration backs off as soon as an R2DBC
+ * ConnectionFactory exists, but JPA, Flyway and the readiness check still
+ * need JDBC. This is the "custom DataSource" setup from the Spring Boot
+ * reference: the same spring.datasource and spring.datasource.hikari
+ * properties as the auto-configuration.
+ *
+ * With sharding, ShardingConfig's @Primary DataSource is used instead (and
+ * ReactiveTaskController refuses to start).
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskservice.reactive.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
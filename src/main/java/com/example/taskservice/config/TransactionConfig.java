@@ -0,0 +1,36 @@
+package com.example.taskservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionManager;
+
+/**
+ * Transaction manager configuration.
+ * 
+ * With the reactive API enabled, Spring Boot registers a reactive (R2DBC)
+ * transaction manager next to the JPA one. @Transactional resolves the transaction
+ * manager by type, so the JPA one is declared here as @Primary.
+ * 
+ * Not used with the journal storage engine (no JPA, no transactions).
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskservice.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class TransactionConfig {
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        // Cast to pick customize(TransactionManager): the PlatformTransactionManager
+        // overload is deprecated for removal
+        customizers.ifAvailable(c -> c.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
@@ -1,5 +1,12 @@
 package com.example.taskservice.controller;
 
+import com.example.taskservice.health.DatabaseReadinessIndicator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,6 +26,16 @@ public class HealthController {
 
     private final LocalDateTime startTime = LocalDateTime.now();
 
+    private final ApplicationAvailability availability;
+    // Absent with the journal storage engine (no database)
+    private final DatabaseReadinessIndicator databaseReadiness;
+
+    public HealthController(ApplicationAvailability availability,
+                            ObjectProvider<DatabaseReadinessIndicator> databaseReadiness) {
+        this.availability = availability;
+        this.databaseReadiness = databaseReadiness.getIfAvailable();
+    }
+
     /**
      * Simple root endpoint to verify the service is running.
      */
@@ -53,14 +70,24 @@ public class HealthController {
      * to receive traffic. If this fails, the pod is removed from
      * service load balancers.
      * 
-     * This could include checks for database connectivity, etc.
+     * Ready only when:
+     * - Startup (including the JIT warm-up in WarmupRunner) has finished
+     * - The database is reachable (result cached briefly, see DatabaseReadinessIndicator),
+     *   when there is one
      */
     @GetMapping("/health/ready")
     public ResponseEntity<Map<String, String>> readiness() {
-        // In a real app, you might check database connectivity here
+        boolean acceptingTraffic = availability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC;
+        Health database = databaseReadiness != null ? databaseReadiness.health() : null;
+        boolean ready = acceptingTraffic && (database == null || Status.UP.equals(database.getStatus()));
+
         Map<String, String> response = new HashMap<>();
-        response.put("status", "UP");
-        return ResponseEntity.ok(response);
+        response.put("status", ready ? "UP" : "DOWN");
+        response.put("startup", acceptingTraffic ? "COMPLETE" : "IN_PROGRESS");
+        if (database != null) {
+            response.put("database", database.getStatus().getCode());
+        }
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
 
     /**
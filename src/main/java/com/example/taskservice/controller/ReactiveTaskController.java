@@ -0,0 +1,175 @@
+package com.example.taskservice.controller;
+
+import com.example.taskservice.dto.TaskDTO;
+import com.example.taskservice.exception.TaskNotFoundException;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.repository.reactive.ReactiveTaskRepository;
+import com.example.taskservice.sharding.ShardRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive, read-only Task API backed by R2DBC.
+ * 
+ * Runs alongside TaskController (/api/tasks), which stays the only write path.
+ * Enabled with taskservice.reactive.enabled=true.
+ * 
+ * Why?
+ * - The JPA endpoints hold a request thread and a JDBC connection for the
+ *   whole query; here no thread waits on the database
+ * - With Accept: application/x-ndjson, results are streamed row by row and
+ *   the database is only read as fast as the client consumes (backpressure)
+ * - With Accept: application/json the results are collected into one array,
+ *   so JSON responses are always one page (at most MAX_PAGE_SIZE tasks)
+ *
+ * R2DBC connects to a single database, so this API refuses to start
+ * when taskservice.sharding is enabled (it would only see one shard).
+ */
+@RestController
+@RequestMapping("/api/v2/tasks")
+@Tag(name = "Tasks (reactive)", description = "Read-only task queries backed by R2DBC")
+@ConditionalOnProperty(name = "taskservice.reactive.enabled", havingValue = "true")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskRepository taskRepository;
+
+    public ReactiveTaskController(ReactiveTaskRepository taskRepository, ShardRouter shardRouter) {
+        if (shardRouter.isSharded()) {
+            throw new IllegalStateException("The reactive API (taskservice.reactive) does not support taskservice.sharding");
+        }
+        this.taskRepository = taskRepository;
+    }
+
+    @Operation(
+            summary = "Get tasks (reactive)",
+            description = "One page of tasks, newest first, optionally filtered by status "
+                    + "(first page of " + TaskController.MAX_PAGE_SIZE + " tasks if omitted)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<TaskDTO> getAllTasks(
+            @Parameter(description = "Filter by task status")
+            @RequestParam(required = false) TaskStatus status,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 500)")
+            @RequestParam(defaultValue = "500") int size) {
+        return findAll(status, boundedPage(page, size));
+    }
+
+    @Operation(
+            summary = "Stream all tasks (reactive)",
+            description = "Streams all tasks as NDJSON, newest first, optionally filtered by status and paginated"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDTO> streamAllTasks(
+            @Parameter(description = "Filter by task status")
+            @RequestParam(required = false) TaskStatus status,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size (all tasks if omitted)")
+            @RequestParam(required = false) Integer size) {
+        return findAll(status, streamPage(page, size));
+    }
+
+    @Operation(
+            summary = "Get task by ID (reactive)",
+            description = "Retrieves a specific task by its ID, including archived tasks"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Task found"),
+            @ApiResponse(responseCode = "404", description = "Task not found")
+    })
+    @GetMapping("/{id}")
+    public Mono<TaskDTO> getTaskById(
+            @Parameter(description = "Task ID", required = true)
+            @PathVariable Long id) {
+        return taskRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> taskRepository.findArchivedById(id)))
+                .map(TaskDTO::fromRecord)
+                .switchIfEmpty(Mono.error(() -> new TaskNotFoundException(id)));
+    }
+
+    @Operation(
+            summary = "Search tasks (reactive)",
+            description = "One page of tasks whose title contains the query (case-insensitive), newest first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed")
+    })
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<TaskDTO> searchTasks(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 500)")
+            @RequestParam(defaultValue = "500") int size) {
+        return search(q, boundedPage(page, size));
+    }
+
+    @Operation(
+            summary = "Stream search results (reactive)",
+            description = "Streams tasks whose title contains the query (case-insensitive) as NDJSON, newest first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed")
+    })
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDTO> streamSearchResults(
+            @Parameter(description = "Search query", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size (all matches if omitted)")
+            @RequestParam(required = false) Integer size) {
+        return search(q, streamPage(page, size));
+    }
+
+    private Flux<TaskDTO> findAll(TaskStatus status, Pageable pageable) {
+        if (status != null) {
+            return taskRepository.findByStatusOrderByCreatedAtDesc(status, pageable)
+                    .map(TaskDTO::fromRecord);
+        }
+        return taskRepository.findAllByOrderByCreatedAtDesc(pageable)
+                .map(TaskDTO::fromRecord);
+    }
+
+    private Flux<TaskDTO> search(String query, Pageable pageable) {
+        return taskRepository.findByTitleContainingIgnoreCaseOrderByCreatedAtDesc(query, pageable)
+                .map(TaskDTO::fromRecord);
+    }
+
+    /**
+     * JSON responses are collected into one array in memory (Spring MVC),
+     * so they are always one page of at most MAX_PAGE_SIZE tasks.
+     */
+    private static Pageable boundedPage(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), TaskController.MAX_PAGE_SIZE));
+    }
+
+    /**
+     * NDJSON is written row by row as the client reads, so it may be unpaged.
+     */
+    private static Pageable streamPage(Integer page, Integer size) {
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        return PageRequest.of(page != null ? Math.max(page, 0) : 0, Math.max(size, 1));
+    }
+}
@@ -2,22 +2,34 @@ package com.example.taskservice.controller;
 
 import com.example.taskservice.dto.CreateTaskRequest;
 import com.example.taskservice.dto.TaskDTO;
+import com.example.taskservice.dto.TaskJsonWriter;
+import com.example.taskservice.dto.TaskJsonWriter.TaskArray;
 import com.example.taskservice.dto.UpdateTaskRequest;
+import com.example.taskservice.exception.InvalidPageRequestException;
 import com.example.taskservice.model.Task;
 import com.example.taskservice.model.TaskStatus;
 import com.example.taskservice.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * REST Controller for Task operations.
@@ -26,47 +38,125 @@ import java.util.stream.Collectors;
  * - TaskDTO: Response object (what clients receive)
  * - CreateTaskRequest: Request for creating tasks
  * - UpdateTaskRequest: Request for updating tasks
+ * 
+ * List endpoints don't build a List<TaskDTO>; they write tasks straight to
+ * the response with TaskJsonWriter (same JSON as TaskDTO, far fewer
+ * allocations). The unfiltered list is read from the database in batches,
+ * and no connection is held while the client reads (see
+ * JpaTaskStore.forEachNewestFirst).
+ *
+ * Paged lists: by page number up to MAX_PAGE_OFFSET tasks deep (with
+ * sharding, every shard reads all rows up to the page). Beyond that,
+ * clients pass the createdAt and id of the last task they got
+ * (afterCreatedAt, afterId) and get the next page at the cost of the first.
+ *
+ * Archived tasks (months moved to tasks_archive, see TaskPartitionManager)
+ * are read-only: GET by ID still returns them, but PUT, PATCH and DELETE
+ * answer 404 as for an unknown task. List, count and search endpoints only
+ * cover tasks that are not archived.
  */
 @RestController
 @RequestMapping("/api/tasks")
 @Tag(name = "Tasks", description = "Task management operations")
 public class TaskController {
 
+    // Upper bound for the page size of paged list requests (also /api/v2/tasks)
+    static final int MAX_PAGE_SIZE = 500;
+
+    // Deepest page (in tasks skipped) served by page number; each shard reads
+    // offset + size rows for it. Deeper pages use afterCreatedAt/afterId.
+    static final long MAX_PAGE_OFFSET = 10_000;
+
     private final TaskService taskService;
+    private final TaskJsonWriter taskJsonWriter;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskJsonWriter taskJsonWriter) {
         this.taskService = taskService;
+        this.taskJsonWriter = taskJsonWriter;
     }
 
     @Operation(
             summary = "Get all tasks",
-            description = "Retrieves all tasks, optionally filtered by status"
+            description = "Retrieves all tasks, optionally filtered by status. "
+                    + "Pass page (0-based) to get one page of tasks, newest first; pages beyond "
+                    + MAX_PAGE_OFFSET + " tasks are refused. For those (or to page through everything), "
+                    + "pass afterCreatedAt and afterId of the last task of the previous page instead."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved tasks",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = TaskDTO.class)))),
+            @ApiResponse(responseCode = "400",
+                    description = "Page beyond " + MAX_PAGE_OFFSET + " tasks, or only one of afterCreatedAt/afterId",
+                    content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<TaskDTO>> getAllTasks(
+    public void getAllTasks(
             @Parameter(description = "Filter by task status")
-            @RequestParam(required = false) TaskStatus status) {
-        
+            @RequestParam(required = false) TaskStatus status,
+            @Parameter(description = "Page number (0-based); omit to get all tasks")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size (max 500)")
+            @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "createdAt of the last task of the previous page (with afterId)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime afterCreatedAt,
+            @Parameter(description = "id of the last task of the previous page (with afterCreatedAt)")
+            @RequestParam(required = false) Long afterId,
+            HttpServletResponse response) throws IOException {
+
+        if ((afterCreatedAt == null) != (afterId == null)) {
+            throw new InvalidPageRequestException("afterCreatedAt and afterId must be given together");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        if (afterId != null) {
+            // Keyset page: as cheap as the first page at any depth
+            writeTasks(status != null
+                    ? taskService.getTasksByStatusAfter(status, afterCreatedAt, afterId, pageSize)
+                    : taskService.getAllTasksAfter(afterCreatedAt, afterId, pageSize), response);
+            return;
+        }
+
+        if (page == null && status == null) {
+            // Everything: stream from the database instead of loading a list
+            TaskArray array = openTaskArray(response);
+            taskService.forEachTask(array::write);
+            array.close();
+            return;
+        }
+
         List<Task> tasks;
-        if (status != null) {
-            tasks = taskService.getTasksByStatus(status);
+        if (page != null) {
+            int pageNumber = Math.max(page, 0);
+            if ((long) pageNumber * pageSize > MAX_PAGE_OFFSET) {
+                throw new InvalidPageRequestException("Pages beyond " + MAX_PAGE_OFFSET
+                        + " tasks are not served by number; pass afterCreatedAt and afterId instead");
+            }
+            tasks = status != null
+                    ? taskService.getTasksByStatus(status, pageNumber, pageSize)
+                    : taskService.getAllTasks(pageNumber, pageSize);
         } else {
-            tasks = taskService.getAllTasks();
+            tasks = taskService.getTasksByStatus(status);
         }
-        
-        List<TaskDTO> taskDTOs = tasks.stream()
-                .map(TaskDTO::fromEntity)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(taskDTOs);
+        writeTasks(tasks, response);
+    }
+
+    @Operation(
+            summary = "Count tasks by status",
+            description = "Returns the number of tasks per status"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully counted tasks")
+    })
+    @GetMapping("/counts")
+    public ResponseEntity<Map<TaskStatus, Long>> countTasksByStatus() {
+        return ResponseEntity.ok(taskService.countTasksByStatus());
     }
 
     @Operation(
             summary = "Get task by ID",
-            description = "Retrieves a specific task by its ID"
+            description = "Retrieves a specific task by its ID, including archived tasks"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task found"),
@@ -103,7 +193,8 @@ public class TaskController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Task updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Task not found"),
+            @ApiResponse(responseCode = "404", description = "Task not found or archived (read-only)"),
+            @ApiResponse(responseCode = "409", description = "Task changed concurrently; read it again and retry"),
             @ApiResponse(responseCode = "400", description = "Invalid input")
     })
     @PutMapping("/{id}")
@@ -116,6 +207,7 @@ public class TaskController {
         taskDetails.setTitle(request.getTitle());
         taskDetails.setDescription(request.getDescription());
         taskDetails.setStatus(request.getStatus());
+        taskDetails.setDueAt(request.getDueAt());
         
         Task updatedTask = taskService.updateTask(id, taskDetails);
         return ResponseEntity.ok(TaskDTO.fromEntity(updatedTask));
@@ -123,11 +215,14 @@ public class TaskController {
 
     @Operation(
             summary = "Update task status",
-            description = "Updates only the status of a task (partial update)"
+            description = "Updates only the status of a task (partial update). "
+                    + "With write-behind enabled the update is queued and applied shortly after (202, no body)."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Status updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Task not found")
+            @ApiResponse(responseCode = "202", description = "Status update queued (write-behind)"),
+            @ApiResponse(responseCode = "404", description = "Task not found or archived (read-only)"),
+            @ApiResponse(responseCode = "409", description = "Task changed concurrently; read it again and retry")
     })
     @PatchMapping("/{id}/status")
     public ResponseEntity<TaskDTO> updateTaskStatus(
@@ -135,6 +230,9 @@ public class TaskController {
             @PathVariable Long id,
             @Parameter(description = "New status", required = true)
             @RequestParam TaskStatus status) {
+        if (taskService.queueTaskStatus(id, status)) {
+            return ResponseEntity.accepted().build();
+        }
         Task updatedTask = taskService.updateTaskStatus(id, status);
         return ResponseEntity.ok(TaskDTO.fromEntity(updatedTask));
     }
@@ -145,7 +243,8 @@ public class TaskController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Task deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Task not found")
+            @ApiResponse(responseCode = "404", description = "Task not found or archived (read-only)"),
+            @ApiResponse(responseCode = "409", description = "Task changed concurrently; read it again and retry")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(
@@ -160,18 +259,42 @@ public class TaskController {
             description = "Search tasks by title (case-insensitive)"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Search completed")
+            @ApiResponse(responseCode = "200", description = "Search completed",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = TaskDTO.class))))
     })
     @GetMapping("/search")
-    public ResponseEntity<List<TaskDTO>> searchTasks(
+    public void searchTasks(
             @Parameter(description = "Search query", required = true)
-            @RequestParam String q) {
+            @RequestParam String q,
+            HttpServletResponse response) throws IOException {
         List<Task> tasks = taskService.searchTasks(q);
-        
-        List<TaskDTO> taskDTOs = tasks.stream()
-                .map(TaskDTO::fromEntity)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(taskDTOs);
+        writeTasks(tasks, response);
+    }
+
+    /**
+     * The task was written by someone else (another request, a write-behind
+     * flush, the overdue scheduler) between reading and saving it (see the
+     * @Version on Task). Sent like other errors; the client can retry.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public void taskChangedConcurrently(HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value());
+    }
+
+    private void writeTasks(List<Task> tasks, HttpServletResponse response) throws IOException {
+        TaskArray array = openTaskArray(response);
+        tasks.forEach(array::write);
+        array.close();
+    }
+
+    /**
+     * Not closed on failure on purpose: if nothing was flushed yet, the
+     * error handler can still send a proper error response instead of a
+     * truncated "[]" with status 200.
+     */
+    private TaskArray openTaskArray(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return taskJsonWriter.openArray(response.getOutputStream());
     }
 }
@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 /**
  * Request DTO for creating a new Task.
  * 
@@ -32,6 +34,12 @@ public class CreateTaskRequest {
     @Size(max = 1000, message = "Description cannot exceed 1000 characters")
     private String description;
 
+    @Schema(
+            description = "When the task is due (optional)",
+            example = "2026-02-10T17:00:00"
+    )
+    private LocalDateTime dueAt;
+
     // Default constructor
     public CreateTaskRequest() {
     }
@@ -50,6 +58,7 @@ public class CreateTaskRequest {
         Task task = new Task();
         task.setTitle(this.title);
         task.setDescription(this.description);
+        task.setDueAt(this.dueAt);
         return task;
     }
 
@@ -70,4 +79,12 @@ public class CreateTaskRequest {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.taskservice.dto;
 
 import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskRecord;
 import com.example.taskservice.model.TaskStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -33,19 +34,23 @@ public class TaskDTO {
     @Schema(description = "When the task was last updated", example = "2026-02-05T14:45:00")
     private LocalDateTime updatedAt;
 
+    @Schema(description = "When the task is due", example = "2026-02-10T17:00:00")
+    private LocalDateTime dueAt;
+
     // Default constructor
     public TaskDTO() {
     }
 
     // All-args constructor
     public TaskDTO(Long id, String title, String description, TaskStatus status,
-                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+                   LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime dueAt) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.dueAt = dueAt;
     }
 
     /**
@@ -60,9 +65,18 @@ public class TaskDTO {
         dto.setStatus(task.getStatus());
         dto.setCreatedAt(task.getCreatedAt());
         dto.setUpdatedAt(task.getUpdatedAt());
+        dto.setDueAt(task.getDueAt());
         return dto;
     }
 
+    /**
+     * Factory method to create DTO from a reactive read model row.
+     */
+    public static TaskDTO fromRecord(TaskRecord task) {
+        return new TaskDTO(task.getId(), task.getTitle(), task.getDescription(),
+                task.getStatus(), task.getCreatedAt(), task.getUpdatedAt(), task.getDueAt());
+    }
+
     // Getters and Setters
 
     public Long getId() {
@@ -112,4 +126,12 @@ public class TaskDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
 }
@@ -0,0 +1,207 @@
+package com.example.taskservice.dto;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes tasks as JSON straight to a Jackson JsonGenerator.
+ *
+ * Why not return List<TaskDTO>?
+ * For list endpoints the default path allocates, per task, a TaskDTO copy,
+ * a slot in an intermediate list, and a String per timestamp field (plus the
+ * formatter's own garbage). This writer skips all of that:
+ * - Tasks are written one by one as they come (from a list or a DB stream)
+ * - Field names and status values are pre-encoded SerializedStrings
+ * - Timestamps are formatted into one reused char[] per array
+ *
+ * The output is identical to serializing TaskDTO with the application's
+ * ObjectMapper: same field order, nulls included, timestamps in
+ * ISO_LOCAL_DATE_TIME (e.g. 2026-02-05T10:30:00 or 2026-02-05T10:30:00.123456).
+ *
+ * See src/jmh/java/.../TaskJsonBenchmark for the allocation comparison.
+ */
+@Component
+public class TaskJsonWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString DUE_AT = new SerializedString("dueAt");
+
+    private static final Map<TaskStatus, SerializableString> STATUS_VALUES = new EnumMap<>(TaskStatus.class);
+
+    static {
+        for (TaskStatus status : TaskStatus.values()) {
+            STATUS_VALUES.put(status, new SerializedString(status.name()));
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public TaskJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Start a JSON array on the given stream.
+     * Write tasks with TaskArray.write and close it to end the array.
+     */
+    public TaskArray openArray(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartArray();
+        return new TaskArray(generator);
+    }
+
+    /**
+     * An open JSON array of tasks.
+     * Not thread-safe; used by one request at a time.
+     */
+    public static final class TaskArray implements Closeable {
+
+        private final JsonGenerator generator;
+        // Reused for every timestamp in this array
+        private final char[] timestampBuffer = new char[TimestampFormat.MAX_LENGTH];
+
+        private TaskArray(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        /**
+         * Write one task.
+         * IOExceptions are rethrown unchecked so this can be used as a Consumer<Task>.
+         */
+        public void write(Task task) {
+            try {
+                generator.writeStartObject();
+                writeNumber(ID, task.getId());
+                writeString(TITLE, task.getTitle());
+                writeString(DESCRIPTION, task.getDescription());
+                generator.writeFieldName(STATUS);
+                if (task.getStatus() != null) {
+                    generator.writeString(STATUS_VALUES.get(task.getStatus()));
+                } else {
+                    generator.writeNull();
+                }
+                writeTimestamp(CREATED_AT, task.getCreatedAt());
+                writeTimestamp(UPDATED_AT, task.getUpdatedAt());
+                writeTimestamp(DUE_AT, task.getDueAt());
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+
+        private void writeNumber(SerializableString name, Long value) throws IOException {
+            generator.writeFieldName(name);
+            if (value != null) {
+                generator.writeNumber(value.longValue());
+            } else {
+                generator.writeNull();
+            }
+        }
+
+        private void writeString(SerializableString name, String value) throws IOException {
+            generator.writeFieldName(name);
+            if (value != null) {
+                generator.writeString(value);
+            } else {
+                generator.writeNull();
+            }
+        }
+
+        private void writeTimestamp(SerializableString name, LocalDateTime value) throws IOException {
+            generator.writeFieldName(name);
+            if (value != null) {
+                int length = TimestampFormat.format(value, timestampBuffer);
+                generator.writeString(timestampBuffer, 0, length);
+            } else {
+                generator.writeNull();
+            }
+        }
+    }
+
+    /**
+     * Allocation-free ISO_LOCAL_DATE_TIME formatting into a char[].
+     *
+     * Matches DateTimeFormatter.ISO_LOCAL_DATE_TIME (what Jackson uses for
+     * LocalDateTime): seconds always present, fraction only when non-zero
+     * and without trailing zeros.
+     */
+    static final class TimestampFormat {
+
+        // "+999999999-12-31T23:59:59.999999999"
+        static final int MAX_LENGTH = 35;
+
+        private TimestampFormat() {
+        }
+
+        static int format(LocalDateTime value, char[] buffer) {
+            int year = value.getYear();
+            if (year < 0 || year > 9999) {
+                // Signed/extended years are rare; let the JDK handle them
+                String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+                formatted.getChars(0, formatted.length(), buffer, 0);
+                return formatted.length();
+            }
+
+            int pos = 0;
+            pos = writeDigits(buffer, pos, year, 4);
+            buffer[pos++] = '-';
+            pos = writeDigits(buffer, pos, value.getMonthValue(), 2);
+            buffer[pos++] = '-';
+            pos = writeDigits(buffer, pos, value.getDayOfMonth(), 2);
+            buffer[pos++] = 'T';
+            pos = writeDigits(buffer, pos, value.getHour(), 2);
+            buffer[pos++] = ':';
+            pos = writeDigits(buffer, pos, value.getMinute(), 2);
+            buffer[pos++] = ':';
+            pos = writeDigits(buffer, pos, value.getSecond(), 2);
+
+            int nano = value.getNano();
+            if (nano != 0) {
+                int digits = 9;
+                while (nano % 10 == 0) {
+                    nano /= 10;
+                    digits--;
+                }
+                buffer[pos++] = '.';
+                pos = writeDigits(buffer, pos, nano, digits);
+            }
+            return pos;
+        }
+
+        /**
+         * Write value as exactly width digits (zero-padded).
+         */
+        private static int writeDigits(char[] buffer, int pos, int value, int width) {
+            for (int i = pos + width - 1; i >= pos; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return pos + width;
+        }
+    }
+}
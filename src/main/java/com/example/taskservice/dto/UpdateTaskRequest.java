@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
+
 /**
  * Request DTO for updating an existing Task.
  * 
@@ -32,6 +34,12 @@ public class UpdateTaskRequest {
     @Size(max = 1000, message = "Description cannot exceed 1000 characters")
     private String description;
 
+    @Schema(
+            description = "When the task is due (optional)",
+            example = "2026-02-12T17:00:00"
+    )
+    private LocalDateTime dueAt;
+
     @Schema(
             description = "Task status",
             example = "IN_PROGRESS"
@@ -74,4 +82,12 @@ public class UpdateTaskRequest {
     public void setStatus(TaskStatus status) {
         this.status = status;
     }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.taskservice.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by TaskService when a task is created with, or updated to, a
+ * new due date (dueAt is null when the due date was removed).
+ * 
+ * TaskDueScheduler listens for it after commit, so tasks that are due soon
+ * are scheduled right away instead of on the next window load.
+ */
+public class TaskDueDateChangedEvent {
+
+    private final Long taskId;
+    private final LocalDateTime dueAt;
+
+    public TaskDueDateChangedEvent(Long taskId, LocalDateTime dueAt) {
+        this.taskId = taskId;
+        this.dueAt = dueAt;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+}
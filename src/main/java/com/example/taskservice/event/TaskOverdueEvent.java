@@ -0,0 +1,29 @@
+package com.example.taskservice.event;
+
+/**
+ * Published once per task when its due date has passed
+ * (see TaskService.fireDueTasks).
+ * 
+ * Published inside the firing transaction:
+ * - @TransactionalEventListener receives it only if the transition committed
+ *   (see TaskOverdueListener)
+ * - cancelled is true when the task was moved to CANCELLED
+ */
+public class TaskOverdueEvent {
+
+    private final Long taskId;
+    private final boolean cancelled;
+
+    public TaskOverdueEvent(Long taskId, boolean cancelled) {
+        this.taskId = taskId;
+        this.cancelled = cancelled;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.taskservice.event;
+
+import com.example.taskservice.model.TaskStatus;
+
+/**
+ * Published by TaskService whenever a task is created, changes status or
+ * is deleted (status is null for deleted tasks).
+ * 
+ * Carries only the new state, so applying the same event twice is harmless.
+ * TaskStatusIndex listens for it after commit.
+ */
+public class TaskStatusChangedEvent {
+
+    private final Long taskId;
+    private final TaskStatus status;
+
+    public TaskStatusChangedEvent(Long taskId, TaskStatus status) {
+        this.taskId = taskId;
+        this.status = status;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+}
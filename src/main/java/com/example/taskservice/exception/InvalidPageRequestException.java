@@ -0,0 +1,18 @@
+package com.example.taskservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a list request asks for a page that isn't served,
+ * e.g. beyond the maximum offset.
+ * 
+ * @ResponseStatus: Spring returns 400 BAD REQUEST with this message.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
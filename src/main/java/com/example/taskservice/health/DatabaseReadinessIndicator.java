@@ -0,0 +1,92 @@
+package com.example.taskservice.health;
+
+import com.example.taskservice.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Database check used by the readiness probe.
+ *
+ * Kubernetes probes every pod every few seconds, so the result is cached
+ * for a short time (taskservice.readiness.db-check-cache-ttl) instead of
+ * borrowing a connection and pinging Postgres on every probe.
+ *
+ * Registered as the "databaseReadiness" health contributor and included
+ * in the actuator readiness group (see application.yaml).
+ * With sharding, every shard must be reachable.
+ * Not created with the journal storage engine (no database).
+ */
+@Component("databaseReadiness")
+@ConditionalOnProperty(name = "taskservice.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class DatabaseReadinessIndicator implements HealthIndicator {
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final long cacheTtlNanos;
+    private final int validationTimeoutSeconds;
+
+    private volatile Health cachedHealth;
+    private volatile long cachedAtNanos;
+
+    public DatabaseReadinessIndicator(
+            DataSource dataSource,
+            ShardRouter shardRouter,
+            @Value("${taskservice.readiness.db-check-cache-ttl:2s}") Duration cacheTtl,
+            @Value("${taskservice.readiness.db-check-timeout:2s}") Duration validationTimeout) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    @Override
+    public Health health() {
+        Health health = cachedHealth;
+        if (health != null && System.nanoTime() - cachedAtNanos < cacheTtlNanos) {
+            return health;
+        }
+
+        // Only one probe thread re-checks; concurrent callers reuse its result
+        synchronized (this) {
+            if (cachedHealth != null && System.nanoTime() - cachedAtNanos < cacheTtlNanos) {
+                return cachedHealth;
+            }
+            health = checkDatabase();
+            cachedHealth = health;
+            cachedAtNanos = System.nanoTime();
+            return health;
+        }
+    }
+
+    private Health checkDatabase() {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Health health = shardRouter.onShard(shard, this::checkConnection);
+            if (!Status.UP.equals(health.getStatus())) {
+                return shardRouter.isSharded()
+                        ? Health.status(health.getStatus()).withDetails(health.getDetails()).withDetail("shard", shard).build()
+                        : health;
+            }
+        }
+        return Health.up().build();
+    }
+
+    private Health checkConnection() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isValid(validationTimeoutSeconds)) {
+                return Health.up().build();
+            }
+            return Health.down().withDetail("error", "Connection validation failed").build();
+        } catch (SQLException e) {
+            return Health.down(e).build();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.taskservice.index;
+
+import com.example.taskservice.event.TaskStatusChangedEvent;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.repository.TaskRepository;
+import com.example.taskservice.repository.TaskRepository.TaskStatusRow;
+import com.example.taskservice.sharding.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of task IDs per status, one compressed (Roaring) bitmap
+ * per TaskStatus.
+ *
+ * Why?
+ * - idx_tasks_status has only 4 distinct values, so Postgres often
+ *   ignores it and scans; counting per status is a full scan every time
+ * - Here counts are O(1) and a page of IDs for a status is a short
+ *   iteration over a compressed bitmap
+ *
+ * Lifecycle:
+ * - Built at startup (before the JIT warm-up, so before the pod is ready)
+ *   from a streaming scan of (id, status)
+ * - Kept current from TaskStatusChangedEvents, applied after commit.
+ *   Events arriving during the scan are buffered and replayed afterwards.
+ * - Rebuilt from the database every taskservice.status-index.rebuild-interval.
+ *   Events only come from this process, so changes made by other replicas
+ *   and partitions moved to tasks_archive (TaskPartitionManager) are
+ *   only picked up by a rebuild. With several replicas, counts and pages
+ *   may be that much out of date.
+ *
+ * Memory: roughly 0.5 MB per million tasks in the worst case (statuses
+ * evenly interleaved); much less when IDs of a status are clustered,
+ * which is typical (old tasks are mostly COMPLETED). The current size is
+ * exported as taskservice.status_index.bytes.
+ *
+ * Optional: enabled with taskservice.status-index.enabled=true, only with
+ * the JPA storage engine (the journal store keeps its own bitmaps).
+ * Only tasks in the tasks table are indexed (not tasks_archive).
+ * Not available with sharding (fails at startup): paged status queries
+ * can't use it across shards.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnExpression("${taskservice.status-index.enabled:false} and '${taskservice.storage.engine:jpa}' == 'jpa'")
+public class TaskStatusIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatusIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<TaskStatus, Roaring64Bitmap> bitmaps = new EnumMap<>(TaskStatus.class);
+    private final List<TaskStatusChangedEvent> pendingEvents = new ArrayList<>();
+    private volatile boolean ready;
+    private boolean rebuilding;
+
+    public TaskStatusIndex(TaskRepository taskRepository,
+                           PlatformTransactionManager transactionManager,
+                           ShardRouter shardRouter,
+                           MeterRegistry meterRegistry) {
+        if (shardRouter.isSharded()) {
+            throw new IllegalStateException("taskservice.status-index is not supported with taskservice.sharding");
+        }
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        for (TaskStatus status : TaskStatus.values()) {
+            bitmaps.put(status, new Roaring64Bitmap());
+        }
+
+        Gauge.builder("taskservice.status_index.bytes", this, TaskStatusIndex::sizeInBytes)
+                .description("Memory used by the task status bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("taskservice.status_index.tasks", this, TaskStatusIndex::totalTasks)
+                .description("Number of tasks in the status index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Replace the bitmaps with a fresh scan of the tasks table.
+     *
+     * The index keeps answering from the old bitmaps during the scan.
+     * Events arriving meanwhile are applied to the old bitmaps and replayed
+     * on the new ones, so no local change is lost by the swap.
+     */
+    @Scheduled(fixedDelayString = "${taskservice.status-index.rebuild-interval:PT1M}",
+               initialDelayString = "${taskservice.status-index.rebuild-interval:PT1M}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<TaskStatus, Roaring64Bitmap> loaded = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            loaded.put(status, new Roaring64Bitmap());
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<TaskStatusRow> rows = taskRepository.streamAllStatuses()) {
+                    rows.forEach(row -> loaded.get(row.getStatus()).addLong(row.getId()));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                if (ready) {
+                    // Already applied to the bitmaps in use
+                    pendingEvents.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        loaded.values().forEach(Roaring64Bitmap::runOptimize);
+
+        boolean firstBuild = !ready;
+        lock.writeLock().lock();
+        try {
+            bitmaps.putAll(loaded);
+            pendingEvents.forEach(this::apply);
+            pendingEvents.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (firstBuild) {
+            log.info("Task status index built in {} ms: {} tasks, {} bytes",
+                    (System.nanoTime() - start) / 1_000_000, totalTasks(), sizeInBytes());
+        } else {
+            log.debug("Task status index rebuilt in {} ms: {} tasks",
+                    (System.nanoTime() - start) / 1_000_000, totalTasks());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(TaskStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(event);
+            }
+            if (!ready || rebuilding) {
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * False until the startup scan has finished; callers fall back to the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Number of tasks per status.
+     */
+    public Map<TaskStatus, Long> counts() {
+        lock.readLock().lock();
+        try {
+            Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+            bitmaps.forEach((status, bitmap) -> counts.put(status, bitmap.getLongCardinality()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit task IDs with the given status, highest (newest) ID first,
+     * after skipping the first skip IDs.
+     */
+    public List<Long> idsNewestFirst(TaskStatus status, long skip, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>(limit);
+            LongIterator iterator = bitmaps.get(status).getReverseLongIterator();
+            while (iterator.hasNext() && ids.size() < limit) {
+                long id = iterator.next();
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.values().stream().mapToLong(Roaring64Bitmap::getLongSizeInBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long totalTasks() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.values().stream().mapToLong(Roaring64Bitmap::getLongCardinality).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called while holding the write lock.
+     */
+    private void apply(TaskStatusChangedEvent event) {
+        long id = event.getTaskId();
+        for (Roaring64Bitmap bitmap : bitmaps.values()) {
+            bitmap.removeLong(id);
+        }
+        if (event.getStatus() != null) {
+            bitmaps.get(event.getStatus()).addLong(id);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.taskservice.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to record a running pod with JDK Flight Recorder.
+ *
+ * Usage (e.g. through kubectl port-forward):
+ *   POST   /actuator/jfr          start, body {"settings": "profile", "duration": "5m"} (both optional)
+ *   GET    /actuator/jfr          current recording state
+ *   DELETE /actuator/jfr          stop (data is kept for download)
+ *   GET    /actuator/jfr/{name}   download the recording (also while running)
+ *
+ * The .jfr file opens in JDK Mission Control; the custom events are under
+ * "Task Service" (see JfrEventsAspect).
+ *
+ * One recording at a time; starting a new one discards the previous one.
+ * Recordings stop on their own after the requested duration (at most
+ * taskservice.jfr.max-duration). Downloads are written to
+ * taskservice.jfr.dump-dir first (/tmp, the pod's writable emptyDir).
+ *
+ * Disabled by default; enable with management.endpoint.jfr.enabled=true.
+ */
+@Component
+@Endpoint(id = "jfr", enableByDefault = false)
+public class JfrEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dumpDirectory;
+    private final Duration maxDuration;
+
+    private Recording recording;
+    private String settings;
+    private Path dumpFile;
+
+    public JfrEndpoint(@Value("${taskservice.jfr.dump-dir:${java.io.tmpdir}}") Path dumpDirectory,
+                       @Value("${taskservice.jfr.max-duration:30m}") Duration maxDuration) {
+        this.dumpDirectory = dumpDirectory;
+        this.maxDuration = maxDuration;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("name", recording.getName());
+        status.put("settings", settings);
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("duration", recording.getDuration());
+        status.put("size", recording.getSize());
+        status.put("download", "/actuator/jfr/" + recording.getName());
+        return status;
+    }
+
+    /**
+     * Start a new recording.
+     *
+     * @param settings JFR settings: "default" (~1% overhead) or "profile"
+     *                 (more detail, ~2%); defaults to "default"
+     * @param duration stop automatically after this long; defaults to
+     *                 (and is capped at) taskservice.jfr.max-duration
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings, @Nullable Duration duration)
+            throws IOException, ParseException {
+        closeRecording();
+
+        String settingsName = settings != null ? settings : "default";
+        Duration recordingDuration = duration != null && duration.compareTo(maxDuration) < 0 ? duration : maxDuration;
+
+        Recording newRecording = new Recording(Configuration.getConfiguration(settingsName));
+        newRecording.setName("taskservice-" + LocalDateTime.now().format(NAME_FORMAT));
+        newRecording.enable(TaskOperationEvent.class);
+        newRecording.enable(RepositoryQueryEvent.class);
+        newRecording.setDuration(recordingDuration);
+        newRecording.setToDisk(true);
+        newRecording.start();
+
+        this.recording = newRecording;
+        this.settings = settingsName;
+        log.info("Started JFR recording {} ({} settings, max {})", newRecording.getName(), settingsName, recordingDuration);
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording {}", recording.getName());
+        }
+        return status();
+    }
+
+    /**
+     * Download the recording. A running recording keeps running; the file
+     * contains everything recorded so far.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector String name) throws IOException {
+        if (recording == null || !recording.getName().equals(name)
+                || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+
+        deleteDumpFile();
+        dumpFile = dumpDirectory.resolve(recording.getName() + ".jfr");
+        recording.dump(dumpFile);
+        return new WebEndpointResponse<>(new FileSystemResource(dumpFile), WebEndpointResponse.STATUS_OK);
+    }
+
+    @PreDestroy
+    public synchronized void closeRecording() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteDumpFile();
+    }
+
+    private void deleteDumpFile() throws IOException {
+        if (dumpFile != null) {
+            Files.deleteIfExists(dumpFile);
+            dumpFile = null;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.taskservice.jfr;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import jdk.jfr.EventType;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Emits JFR events around TaskService and TaskRepository calls.
+ *
+ * Overhead:
+ * - No recording running (the normal case): one EventType.isEnabled()
+ *   check per call, no event object is created
+ * - Recording running: one small event per call; arguments and results are
+ *   only inspected if the event passes the recording's threshold
+ *
+ * The aspect runs outside the @Transactional advice, so TaskOperation
+ * durations include transaction begin/commit.
+ *
+ * Can be removed entirely with taskservice.jfr.events-enabled=false.
+ * Start a recording with the "jfr" actuator endpoint (see JfrEndpoint).
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "taskservice.jfr.events-enabled", havingValue = "true", matchIfMissing = true)
+public class JfrEventsAspect {
+
+    private static final EventType OPERATION_EVENT = EventType.getEventType(TaskOperationEvent.class);
+    private static final EventType QUERY_EVENT = EventType.getEventType(RepositoryQueryEvent.class);
+
+    @Around("execution(public * com.example.taskservice.service.TaskService.*(..))")
+    public Object recordOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!OPERATION_EVENT.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        TaskOperationEvent event = new TaskOperationEvent();
+        event.begin();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object[] args = joinPoint.getArgs();
+                event.operation = joinPoint.getSignature().getName();
+                event.taskId = taskId(args);
+                event.status = status(args, result);
+                event.rowCount = rowCount(result);
+                event.exception = failure != null ? failure.getClass().getName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Streaming queries (Stream return type) only cover opening the stream.
+     */
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " && this(com.example.taskservice.repository.TaskRepository)")
+    public Object recordQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!QUERY_EVENT.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.begin();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object[] args = joinPoint.getArgs();
+                event.query = joinPoint.getSignature().getName();
+                event.taskId = taskId(args);
+                event.status = status(args, result);
+                event.rowCount = rowCount(result);
+                event.exception = failure != null ? failure.getClass().getName() : null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * First Long argument (all ID parameters in TaskService/TaskRepository are Long).
+     */
+    private static long taskId(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Long id) {
+                return id;
+            }
+        }
+        return 0;
+    }
+
+    private static String status(Object[] args, Object result) {
+        for (Object arg : args) {
+            if (arg instanceof TaskStatus status) {
+                return status.name();
+            }
+        }
+        if (result instanceof Optional<?> optional) {
+            result = optional.orElse(null);
+        }
+        if (result instanceof Task task && task.getStatus() != null) {
+            return task.getStatus().name();
+        }
+        return null;
+    }
+
+    private static int rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Task) {
+            return 1;
+        }
+        if (result instanceof Number number) {
+            // @Modifying queries return the number of updated rows
+            return number.intValue();
+        }
+        return -1;
+    }
+}
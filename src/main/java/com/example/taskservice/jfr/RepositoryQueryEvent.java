@@ -0,0 +1,42 @@
+package com.example.taskservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one TaskRepository call (see JfrEventsAspect).
+ *
+ * Nested inside the TaskOperation event of the service call that issued it
+ * (same thread, overlapping time range).
+ */
+@Name("com.example.taskservice.RepositoryQuery")
+@Label("Repository Query")
+@Category({"Task Service", "Repository"})
+@Description("A TaskRepository call (one or more SQL statements)")
+@StackTrace(false)
+public class RepositoryQueryEvent extends Event {
+
+    @Label("Query")
+    @Description("Repository method name")
+    String query;
+
+    @Label("Task ID")
+    @Description("ID argument of the query, 0 if none")
+    long taskId;
+
+    @Label("Status")
+    @Description("Status argument, or status of the returned task")
+    String status;
+
+    @Label("Row Count")
+    @Description("Number of rows returned or modified, -1 if unknown")
+    int rowCount;
+
+    @Label("Exception")
+    @Description("Exception class if the query failed")
+    String exception;
+}
@@ -0,0 +1,41 @@
+package com.example.taskservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one TaskService call (see JfrEventsAspect).
+ *
+ * Shows up in JDK Mission Control under "Task Service" with its duration
+ * and the thread it ran on.
+ */
+@Name("com.example.taskservice.TaskOperation")
+@Label("Task Operation")
+@Category({"Task Service", "Service"})
+@Description("A TaskService operation")
+@StackTrace(false)
+public class TaskOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Task ID")
+    @Description("ID argument of the operation, 0 if none")
+    long taskId;
+
+    @Label("Status")
+    @Description("Status argument, or status of the returned task")
+    String status;
+
+    @Label("Row Count")
+    @Description("Number of tasks returned or modified, -1 if unknown")
+    int rowCount;
+
+    @Label("Exception")
+    @Description("Exception class if the operation failed")
+    String exception;
+}
@@ -42,6 +42,21 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    // Set once the overdue transition has fired (see TaskDueScheduler)
+    @Column(name = "due_fired_at")
+    private LocalDateTime dueFiredAt;
+
+    // Incremented by every write (V6 migration). JPA @Version: an update
+    // fails if the task was written since it was read (e.g. by a write-behind
+    // flush during a PUT), and queued status changes are skipped if it
+    // changed since they were queued.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     // Default constructor required by JPA
     public Task() {
     }
@@ -65,7 +80,8 @@ public class Task {
 
     /**
      * JPA lifecycle callback - called before entity is updated.
-     * Updates the modification timestamp automatically.
+     * Updates the modification timestamp automatically (Hibernate
+     * increments the @Version).
      */
     @PreUpdate
     protected void onUpdate() {
@@ -110,10 +126,44 @@ public class Task {
         return createdAt;
     }
 
+    // Set by JPA lifecycle callbacks; these setters are for other
+    // storage engines (see JournalTaskStore)
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
 
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public LocalDateTime getDueFiredAt() {
+        return dueFiredAt;
+    }
+
+    public void setDueFiredAt(LocalDateTime dueFiredAt) {
+        this.dueFiredAt = dueFiredAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Task{" +
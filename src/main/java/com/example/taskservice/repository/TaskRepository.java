@@ -2,10 +2,22 @@ package com.example.taskservice.repository;
 
 import com.example.taskservice.model.Task;
 import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.store.TaskStore.DueTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Task entity.
@@ -45,4 +57,154 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      * Find all tasks ordered by creation date (newest first).
      */
     List<Task> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * One page of tasks, newest first.
+     */
+    List<Task> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    /**
+     * The first batch of all tasks, newest first (ties broken by ID), used
+     * to write large lists batch by batch (JpaTaskStore.forEachNewestFirst).
+     * 
+     * Entities are loaded read-only (no dirty-checking snapshot).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Task t ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findNewestFirst(Pageable batch);
+
+    /**
+     * The next batch: tasks after the given (createdAt, id) in the order of
+     * findNewestFirst.
+     * 
+     * Keyset pagination: the database seeks to the position instead of
+     * reading and discarding OFFSET rows, so every batch costs the same.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT t FROM Task t WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findNewestFirstAfter(@Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable batch);
+
+    /**
+     * One page of tasks with a specific status, newest first.
+     */
+    List<Task> findByStatusOrderByCreatedAtDesc(TaskStatus status, Pageable pageable);
+
+    /**
+     * One page of tasks with a specific status, highest ID first (the same
+     * order as TaskStatusIndex; see JpaTaskStore.findByStatusNewestFirst).
+     */
+    List<Task> findByStatusOrderByIdDesc(TaskStatus status, Pageable pageable);
+
+    /**
+     * The next page of findByStatusOrderByIdDesc after the given ID (keyset
+     * pagination, see findNewestFirstAfter).
+     */
+    List<Task> findByStatusAndIdLessThanOrderByIdDesc(TaskStatus status, Long id, Pageable pageable);
+
+    /**
+     * Tasks with a specific status after the given (createdAt, id), in the
+     * order of findNewestFirst (keyset pagination, see findNewestFirstAfter).
+     */
+    @Query("SELECT t FROM Task t WHERE t.status = :status " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findByStatusNewestFirstAfter(@Param("status") TaskStatus status,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    /**
+     * Number of tasks per status (one GROUP BY query).
+     */
+    @Query("SELECT t.status AS status, COUNT(t) AS total FROM Task t GROUP BY t.status")
+    List<StatusCount> countGroupedByStatus();
+
+    /**
+     * Stream the ID and status of every task (used to build TaskStatusIndex).
+     * 
+     * Must be called inside a transaction and closed after use; the fetch
+     * size makes the driver read rows in chunks instead of all at once.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT t.id AS id, t.status AS status FROM Task t")
+    Stream<TaskStatusRow> streamAllStatuses();
+
+    /**
+     * Version of a task (see TaskStore.findVersion), without loading it.
+     */
+    @Query("SELECT t.version FROM Task t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Find a task in the archived partitions (see V2 migration).
+     * 
+     * Only used when a lookup by ID misses the tasks table.
+     * Archived tasks are read-only.
+     */
+    @Query(value = "SELECT * FROM tasks_archive WHERE id = :id", nativeQuery = true)
+    Optional<Task> findArchivedById(@Param("id") Long id);
+
+    /**
+     * Find tasks that are (or will be) due by the given time and whose
+     * overdue transition hasn't fired yet.
+     * 
+     * Returns a projection (id + due date only, TaskStore.DueTask) to keep
+     * the due-date scheduler's window load cheap.
+     */
+    @Query("SELECT t.id AS id, t.dueAt AS dueAt FROM Task t " +
+           "WHERE t.dueAt <= :until AND t.dueFiredAt IS NULL AND t.status IN :statuses")
+    List<DueTask> findDueTasks(@Param("until") LocalDateTime until,
+                               @Param("statuses") Collection<TaskStatus> statuses);
+
+    /**
+     * Lock the given tasks that are due and not fired yet.
+     * 
+     * SKIP LOCKED: if another replica is firing the same task right now,
+     * it is skipped here instead of waiting. Once that replica commits,
+     * due_fired_at is set and the task no longer matches.
+     */
+    @Query(value = "SELECT id FROM tasks " +
+                   "WHERE id IN (:ids) AND due_fired_at IS NULL AND due_at <= :now " +
+                   "AND status IN ('PENDING', 'IN_PROGRESS') " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueTasks(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark tasks as fired (overdue event only, status unchanged).
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.dueFiredAt = :now, t.updatedAt = :now, t.version = t.version + 1 " +
+           "WHERE t.id IN :ids")
+    int markDueFired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark tasks as fired and move them to a new status in one statement.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.dueFiredAt = :now, t.updatedAt = :now, t.status = :status, " +
+           "t.version = t.version + 1 WHERE t.id IN :ids")
+    int markDueFiredWithStatus(@Param("ids") Collection<Long> ids,
+                               @Param("status") TaskStatus status,
+                               @Param("now") LocalDateTime now);
+
+    /**
+     * Projection for countGroupedByStatus.
+     */
+    interface StatusCount {
+        TaskStatus getStatus();
+
+        Long getTotal();
+    }
+
+    /**
+     * Projection for streamAllStatuses.
+     */
+    interface TaskStatusRow {
+        Long getId();
+
+        TaskStatus getStatus();
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.taskservice.repository.reactive;
+
+import com.example.taskservice.model.TaskRecord;
+import com.example.taskservice.model.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive (R2DBC) repository for the read-only /api/v2/tasks endpoints.
+ * 
+ * Same query surface as TaskRepository, but:
+ * - Results are streamed as Flux (with backpressure) instead of Lists
+ * - No thread is blocked while a query is in flight
+ * 
+ * Extends R2dbcRepository (not a generic Spring Data interface) so Spring
+ * Data JPA doesn't try to implement it too.
+ */
+@Repository
+public interface ReactiveTaskRepository extends R2dbcRepository<TaskRecord, Long> {
+
+    Flux<TaskRecord> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    Flux<TaskRecord> findByStatusOrderByCreatedAtDesc(TaskStatus status, Pageable pageable);
+
+    Flux<TaskRecord> findByTitleContainingIgnoreCaseOrderByCreatedAtDesc(String title, Pageable pageable);
+
+    /**
+     * Find a task in the archived partitions (see V2 migration).
+     */
+    @Query("SELECT * FROM tasks_archive WHERE id = :id")
+    Mono<TaskRecord> findArchivedById(Long id);
+}
@@ -0,0 +1,153 @@
+package com.example.taskservice.scheduler;
+
+import com.example.taskservice.event.TaskDueDateChangedEvent;
+import com.example.taskservice.service.TaskService;
+import com.example.taskservice.store.TaskStore.DueTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fires the overdue transition of tasks when their due date passes.
+ *
+ * Instead of polling the database for overdue rows every few seconds:
+ * - Every reload-interval, the tasks due within the next load-window are
+ *   loaded (one indexed query) into an in-memory TimingWheel
+ * - Tasks created/updated with a due date inside the window are added
+ *   right away (TaskDueDateChangedEvent)
+ * - Every tick, expired tasks are fired in batches via TaskService.fireDueTasks
+ *
+ * Every replica schedules the same tasks. The firing query locks rows with
+ * FOR UPDATE SKIP LOCKED and only matches tasks whose due_fired_at is still
+ * NULL, so each expiry fires exactly once across replicas.
+ */
+@Component
+@ConditionalOnProperty(name = "taskservice.due.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskDueScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDueScheduler.class);
+
+    /**
+     * What happens when a task's due date passes.
+     */
+    public enum DueAction {
+        CANCEL,   // Move the task to CANCELLED and publish TaskOverdueEvent
+        NOTIFY    // Only publish TaskOverdueEvent
+    }
+
+    private final TaskService taskService;
+    private final DueAction action;
+    private final Duration loadWindow;
+    private final int batchSize;
+
+    private final TimingWheel<DueEntry> wheel;
+    // Latest known deadline per scheduled task; wheel entries with an older
+    // deadline (task was rescheduled) are skipped when they expire
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    // Tasks that were already due when scheduled
+    private final List<Long> expiredOnArrival = new ArrayList<>();
+
+    public TaskDueScheduler(TaskService taskService,
+                            @Value("${taskservice.due.action:CANCEL}") DueAction action,
+                            @Value("${taskservice.due.load-window:10m}") Duration loadWindow,
+                            @Value("${taskservice.due.tick:PT1S}") Duration tick,
+                            @Value("${taskservice.due.wheel-size:64}") int wheelSize,
+                            @Value("${taskservice.due.batch-size:500}") int batchSize) {
+        this.taskService = taskService;
+        this.action = action;
+        this.loadWindow = loadWindow;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        loadWindow();
+    }
+
+    /**
+     * Load all tasks due within the next window (including already overdue ones).
+     */
+    @Scheduled(fixedDelayString = "${taskservice.due.reload-interval:PT5M}",
+               initialDelayString = "${taskservice.due.reload-interval:PT5M}")
+    public void loadWindow() {
+        List<DueTask> dueTasks = taskService.findTasksDueBefore(LocalDateTime.now().plus(loadWindow));
+        synchronized (this) {
+            for (DueTask dueTask : dueTasks) {
+                schedule(dueTask.getId(), dueTask.getDueAt());
+            }
+        }
+        log.debug("Loaded {} tasks due within {}", dueTasks.size(), loadWindow);
+    }
+
+    /**
+     * Schedule (or reschedule) a task whose due date changed, after commit.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDueDateChanged(TaskDueDateChangedEvent event) {
+        synchronized (this) {
+            if (event.getDueAt() == null) {
+                deadlines.remove(event.getTaskId());
+            } else if (!event.getDueAt().isAfter(LocalDateTime.now().plus(loadWindow))) {
+                schedule(event.getTaskId(), event.getDueAt());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${taskservice.due.tick:PT1S}")
+    public void tick() {
+        List<Long> expired = new ArrayList<>();
+        synchronized (this) {
+            expired.addAll(expiredOnArrival);
+            expiredOnArrival.clear();
+            wheel.advanceClock(System.currentTimeMillis(), entry -> {
+                if (deadlines.remove(entry.taskId(), entry.deadlineMillis())) {
+                    expired.add(entry.taskId());
+                }
+            });
+        }
+
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                List<Long> fired = taskService.fireDueTasks(batch, action == DueAction.CANCEL);
+                log.debug("Fired {} of {} due tasks", fired.size(), batch.size());
+            } catch (Exception e) {
+                // Not marked as fired; the next window load picks them up again
+                log.error("Failed to fire {} due tasks", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void schedule(Long taskId, LocalDateTime dueAt) {
+        long deadline = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Long previous = deadlines.put(taskId, deadline);
+        if (previous != null && previous == deadline) {
+            return; // Already scheduled
+        }
+        if (!wheel.add(new DueEntry(taskId, deadline), deadline)) {
+            deadlines.remove(taskId);
+            expiredOnArrival.add(taskId);
+        }
+    }
+
+    private record DueEntry(Long taskId, long deadlineMillis) {
+    }
+}
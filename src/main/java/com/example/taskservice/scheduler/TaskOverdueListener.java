@@ -0,0 +1,50 @@
+package com.example.taskservice.scheduler;
+
+import com.example.taskservice.event.TaskOverdueEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Records overdue tasks once their transition has committed.
+ *
+ * @TransactionalEventListener: called after the firing transaction commits
+ * (not at all if it rolls back). fallbackExecution covers the journal
+ * storage engine, which publishes without a transaction.
+ *
+ * Metrics: taskservice.due.overdue{outcome=cancelled|notified}
+ */
+@Component
+public class TaskOverdueListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskOverdueListener.class);
+
+    private final Counter cancelled;
+    private final Counter notified;
+
+    public TaskOverdueListener(MeterRegistry meterRegistry) {
+        this.cancelled = overdueCounter("cancelled", meterRegistry);
+        this.notified = overdueCounter("notified", meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOverdue(TaskOverdueEvent event) {
+        if (event.isCancelled()) {
+            cancelled.increment();
+            log.info("Task {} is overdue and was cancelled", event.getTaskId());
+        } else {
+            notified.increment();
+            log.info("Task {} is overdue", event.getTaskId());
+        }
+    }
+
+    private static Counter overdueCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("taskservice.due.overdue")
+                .description("Tasks whose due date passed, by what happened to them")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
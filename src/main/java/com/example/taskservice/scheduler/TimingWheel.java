@@ -0,0 +1,152 @@
+package com.example.taskservice.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (as used by Kafka and Netty).
+ *
+ * How it works:
+ * - The wheel has wheelSize buckets, each covering tickMillis of time
+ * - An item due within the wheel's span (tickMillis * wheelSize) goes into
+ *   the bucket for its deadline - O(1), no sorting
+ * - Items due later go into an overflow wheel whose tick is the whole span
+ *   of this wheel (created on demand, so e.g. 1s -> 1min -> 1h -> ...)
+ * - Advancing the clock expires the buckets it passes and moves the
+ *   next slice of the overflow wheel down into this one
+ *
+ * Items fire at most one tick late and never early.
+ *
+ * Not thread-safe; callers must synchronize.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final List<List<Entry<T>>> buckets;
+
+    // Start of the current tick (always a multiple of tickMillis)
+    private long currentTime;
+    private TimingWheel<T> overflowWheel;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis must be > 0 and wheelSize > 1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = Math.multiplyExact(tickMillis, (long) wheelSize);
+        this.currentTime = startMillis - (startMillis % tickMillis);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule an item.
+     *
+     * @return false if the deadline has already passed (the caller should
+     *         handle the item right away), true if it was scheduled
+     */
+    public boolean add(T item, long deadlineMillis) {
+        if (addEntry(new Entry<>(item, deadlineMillis))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Advance the clock to nowMillis, passing every item whose deadline
+     * is now in the past to onExpired.
+     */
+    public void advanceClock(long nowMillis, Consumer<T> onExpired) {
+        while (nowMillis >= currentTime + tickMillis) {
+            // Everything in the current tick is due
+            List<Entry<T>> bucket = buckets.get(bucketIndex(currentTime));
+            if (!bucket.isEmpty()) {
+                for (Entry<T> entry : bucket) {
+                    size--;
+                    onExpired.accept(entry.item);
+                }
+                bucket.clear();
+            }
+
+            currentTime += tickMillis;
+
+            // Pull the next slice down from the higher levels
+            if (overflowWheel != null) {
+                overflowWheel.cascade(currentTime, this);
+            }
+        }
+    }
+
+    /**
+     * Number of scheduled items (across all levels).
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean addEntry(Entry<T> entry) {
+        if (entry.deadlineMillis < currentTime) {
+            return false;
+        }
+        if (entry.deadlineMillis < currentTime + intervalMillis) {
+            buckets.get(bucketIndex(entry.deadlineMillis)).add(entry);
+            return true;
+        }
+        return overflow().addEntry(entry);
+    }
+
+    /**
+     * Called on an overflow wheel when the wheel below it has advanced to
+     * lowerTime. Once a full tick of this wheel has passed, the bucket that
+     * now starts at currentTime is handed back to the lowest wheel.
+     */
+    private void cascade(long lowerTime, TimingWheel<T> lowest) {
+        if (lowerTime < currentTime + tickMillis) {
+            return;
+        }
+        currentTime += tickMillis;
+
+        if (overflowWheel != null) {
+            overflowWheel.cascade(currentTime, lowest);
+        }
+
+        List<Entry<T>> bucket = buckets.get(bucketIndex(currentTime));
+        if (!bucket.isEmpty()) {
+            List<Entry<T>> entries = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<T> entry : entries) {
+                // Deadlines are >= lowerTime, so this always succeeds
+                lowest.addEntry(entry);
+            }
+        }
+    }
+
+    private TimingWheel<T> overflow() {
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel<>(intervalMillis, wheelSize, currentTime);
+        }
+        return overflowWheel;
+    }
+
+    private int bucketIndex(long timeMillis) {
+        return (int) ((timeMillis / tickMillis) % wheelSize);
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineMillis;
+
+        private Entry(T item, long deadlineMillis) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.taskservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing ("single-flight") for identical concurrent reads.
+ *
+ * The first caller for a key runs the loader; callers arriving with the
+ * same key while it is still running wait for and share its result (or
+ * exception) instead of running their own query. Nothing is cached: once
+ * the call completes, the next caller runs the loader again.
+ *
+ * Metrics: taskservice.singleflight.calls{operation, outcome=executed|coalesced}
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String operation, boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.executed = Counter.builder("taskservice.singleflight.calls")
+                .description("Reads that ran a query vs. reads that shared an in-flight query")
+                .tag("operation", operation)
+                .tag("outcome", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("taskservice.singleflight.calls")
+                .description("Reads that ran a query vs. reads that shared an in-flight query")
+                .tag("operation", operation)
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the loader for this key, or join the call already in flight.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        if (!enabled) {
+            executed.increment();
+            return loader.get();
+        }
+
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's exception as-is (e.g. TaskNotFoundException -> 404)
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.taskservice.service;
+
+import com.example.taskservice.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of the tasks table (see V2 migration).
+ *
+ * Runs at startup and then daily:
+ * - Creates partitions for the next months (taskservice.partitioning.months-ahead)
+ *   and for every month that has tasks in the default partition (tasks
+ *   created while their month had no partition, see V5 migration)
+ * - Moves partitions older than taskservice.partitioning.retention-months
+ *   from tasks to tasks_archive, as long as they contain no PENDING or
+ *   IN_PROGRESS tasks (those must stay visible to status queries)
+ *
+ * Archived tasks are read-only: GET /api/tasks/{id} still finds them, but
+ * PUT, PATCH and DELETE answer 404 like for an unknown task.
+ *
+ * A single task left PENDING or IN_PROGRESS keeps its month out of the
+ * archive. Every run logs such a partition with its oldest active task IDs
+ * and counts it in taskservice.partitions.archive_blocked.
+ *
+ * A Postgres advisory lock makes sure only one replica does this at a time.
+ * With sharding, every shard database is maintained (one after the other).
+ * Only with the JPA storage engine (there is no tasks table otherwise).
+ */
+@Component
+@ConditionalOnExpression("${taskservice.partitioning.enabled:true} and '${taskservice.storage.engine:jpa}' == 'jpa'")
+public class TaskPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskPartitionManager.class);
+
+    private static final long ADVISORY_LOCK_KEY = 0x7461736b0001L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("^tasks_p(\\d{4})(\\d{2})$");
+
+    // How long DETACH PARTITION may wait for its lock on tasks; while it
+    // waits, every later query on tasks queues behind it
+    private static final String ARCHIVE_LOCK_TIMEOUT = "5s";
+
+    private static final String DEFAULT_PARTITION_MONTHS_SQL =
+            "SELECT DISTINCT date_trunc('month', created_at)::date FROM tasks_default";
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'tasks'";
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Counter archiveBlocked;
+
+    public TaskPartitionManager(DataSource dataSource,
+                                ShardRouter shardRouter,
+                                MeterRegistry meterRegistry,
+                                @Value("${taskservice.partitioning.months-ahead:3}") int monthsAhead,
+                                @Value("${taskservice.partitioning.retention-months:3}") int retentionMonths) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveBlocked = Counter.builder("taskservice.partitions.archive_blocked")
+                .description("Partitions past the retention kept because of PENDING or IN_PROGRESS tasks (once per run)")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${taskservice.partitioning.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        shardRouter.forEachShard(this::maintainShardPartitions);
+    }
+
+    private void maintainShardPartitions(int shard) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tryLock(connection)) {
+                log.debug("Partition maintenance already running on another replica");
+                return;
+            }
+            try {
+                createFuturePartitions(connection);
+                archiveOldPartitions(connection);
+            } finally {
+                unlock(connection);
+            }
+        } catch (SQLException e) {
+            log.error("Partition maintenance failed on shard {}", shard, e);
+        }
+    }
+
+    private void createFuturePartitions(Connection connection) throws SQLException {
+        YearMonth current = YearMonth.now();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT create_tasks_partition(?)")) {
+            for (LocalDate month : defaultPartitionMonths(connection)) {
+                log.warn("Tasks of {} are in the default partition; moving them to a monthly partition",
+                        YearMonth.from(month));
+                ps.setObject(1, month);
+                ps.execute();
+            }
+            for (int i = 0; i <= monthsAhead; i++) {
+                ps.setObject(1, current.plusMonths(i).atDay(1));
+                ps.execute();
+            }
+        }
+    }
+
+    private void archiveOldPartitions(Connection connection) throws SQLException {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+
+        for (String partition : listPartitions(connection)) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(cutoff)) {
+                archivePartition(connection, partition, month);
+            }
+        }
+    }
+
+    /**
+     * Detaches a partition from tasks and attaches it to tasks_archive.
+     *
+     * DETACH locks tasks exclusively (no reads or writes) until commit, so
+     * nothing slow happens after it:
+     * - Active tasks are counted before, without that lock. After DETACH
+     *   they are only re-checked through the partition's status index, in
+     *   case a task became active in between.
+     * - A validated CHECK constraint matching the partition bounds is added
+     *   before (without blocking reads/writes), so ATTACH doesn't have to
+     *   scan the partition.
+     * - DETACH gives up after ARCHIVE_LOCK_TIMEOUT instead of queuing
+     *   behind long transactions (and blocking everything behind it);
+     *   the next run tries again.
+     */
+    private void archivePartition(Connection connection, String partition, YearMonth month) throws SQLException {
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String boundsConstraint = partition + "_bounds";
+
+        long activeTasks = countActiveTasks(connection, partition);
+        if (activeTasks > 0) {
+            archiveBlocked.increment();
+            log.warn("Partition {} is past the retention but {} tasks are still PENDING or IN_PROGRESS "
+                            + "(oldest IDs: {}); it is archived once they are finished",
+                    partition, activeTasks, oldestActiveTaskIds(connection, partition));
+            return;
+        }
+
+        execute(connection, "ALTER TABLE " + partition + " DROP CONSTRAINT IF EXISTS " + boundsConstraint);
+        execute(connection, "ALTER TABLE " + partition + " ADD CONSTRAINT " + boundsConstraint +
+                " CHECK (created_at >= '" + from + "' AND created_at < '" + to + "') NOT VALID");
+        execute(connection, "ALTER TABLE " + partition + " VALIDATE CONSTRAINT " + boundsConstraint);
+
+        boolean archived = false;
+        connection.setAutoCommit(false);
+        try {
+            execute(connection, "SET LOCAL lock_timeout = '" + ARCHIVE_LOCK_TIMEOUT + "'");
+            execute(connection, "ALTER TABLE tasks DETACH PARTITION " + partition);
+
+            if (hasActiveTasks(connection, partition)) {
+                connection.rollback();
+                log.info("Keeping partition {}: a task became active while archiving", partition);
+            } else {
+                execute(connection, "ALTER TABLE tasks_archive ATTACH PARTITION " + partition +
+                        " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+                connection.commit();
+                archived = true;
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        execute(connection, "ALTER TABLE " + partition + " DROP CONSTRAINT IF EXISTS " + boundsConstraint);
+        if (archived) {
+            log.info("Archived partition {}", partition);
+        }
+    }
+
+    private List<String> listPartitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LIST_PARTITIONS_SQL)) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    private List<LocalDate> defaultPartitionMonths(Connection connection) throws SQLException {
+        List<LocalDate> months = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(DEFAULT_PARTITION_MONTHS_SQL)) {
+            while (rs.next()) {
+                months.add(rs.getObject(1, LocalDate.class));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Stops at the first active task (an index lookup on status); cheap
+     * enough to run while tasks is locked.
+     */
+    private boolean hasActiveTasks(Connection connection, String partition) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + partition +
+                     " WHERE status IN ('PENDING', 'IN_PROGRESS'))")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private long countActiveTasks(Connection connection, String partition) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM " + partition +
+                     " WHERE status IN ('PENDING', 'IN_PROGRESS')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private List<Long> oldestActiveTaskIds(Connection connection, String partition) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM " + partition +
+                     " WHERE status IN ('PENDING', 'IN_PROGRESS') ORDER BY created_at LIMIT 10")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            ps.execute();
+        }
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
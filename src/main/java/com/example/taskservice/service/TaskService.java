@@ -1,13 +1,30 @@
 package com.example.taskservice.service;
 
+import com.example.taskservice.event.TaskDueDateChangedEvent;
+import com.example.taskservice.event.TaskOverdueEvent;
+import com.example.taskservice.event.TaskStatusChangedEvent;
 import com.example.taskservice.exception.TaskNotFoundException;
 import com.example.taskservice.model.Task;
 import com.example.taskservice.model.TaskStatus;
-import com.example.taskservice.repository.TaskRepository;
+import com.example.taskservice.sharding.ShardKey;
+import com.example.taskservice.sharding.ShardRouted;
+import com.example.taskservice.store.TaskStore;
+import com.example.taskservice.store.TaskStore.DueTask;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Service layer for Task business logic.
@@ -20,94 +37,280 @@ import java.util.List;
  * 
  * @Service: Marks this as a Spring-managed service component
  * @Transactional: Ensures database operations are wrapped in transactions
+ * 
+ * Storage:
+ * Tasks are read and written through a TaskStore (PostgreSQL via JPA by
+ * default, or the embedded journal store; see taskservice.storage.engine).
+ * This class keeps the business rules and publishes the events.
+ * 
+ * Read coalescing:
+ * getTaskById, getTasksByStatus and searchTasks go through a SingleFlight,
+ * so concurrent identical reads share one query. The store opens its read
+ * transaction inside the single-flight call, so callers waiting for a
+ * shared result don't hold a database connection.
+ * 
+ * Status events:
+ * Every status change publishes a TaskStatusChangedEvent (kept current in
+ * the optional TaskStatusIndex).
+ * 
+ * Write-behind (optional, see TaskStatusWriteBehind):
+ * queueTaskStatus queues a status change to be written in a later batch
+ * instead of updating the task in its own transaction.
+ * 
+ * Sharding (see ShardingConfig):
+ * - Single-task operations run on the task's shard (@ShardRouted/@ShardKey);
+ *   new tasks go to the next shard round-robin
+ * - Lists, search, counts and due-date queries run on all shards (see
+ *   JpaTaskStore). These methods open their transactions per shard, so
+ *   they don't hold one themselves (Propagation.SUPPORTS).
+ * Without sharding there is one shard and nothing changes.
  */
 @Service
 @Transactional
 public class TaskService {
 
-    private final TaskRepository taskRepository;
+    // Statuses a task can still expire from (see fireDueTasks)
+    private static final List<TaskStatus> EXPIRABLE_STATUSES = List.of(TaskStatus.PENDING, TaskStatus.IN_PROGRESS);
+
+    private final TaskStore taskStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<TaskStatusWriteBehind> statusWriteBehind;
+
+    private final SingleFlight<Long, Task> taskByIdFlight;
+    private final SingleFlight<TaskStatus, List<Task>> tasksByStatusFlight;
+    private final SingleFlight<String, List<Task>> searchFlight;
 
     /**
      * Constructor injection (preferred over @Autowired on fields).
-     * Spring automatically injects the TaskRepository bean.
+     * Spring automatically injects the TaskStore bean of the configured engine.
      */
-    public TaskService(TaskRepository taskRepository) {
-        this.taskRepository = taskRepository;
+    public TaskService(TaskStore taskStore,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectProvider<TaskStatusWriteBehind> statusWriteBehind,
+                       MeterRegistry meterRegistry,
+                       @Value("${taskservice.coalescing.enabled:true}") boolean coalescingEnabled) {
+        this.taskStore = taskStore;
+        this.eventPublisher = eventPublisher;
+        this.statusWriteBehind = statusWriteBehind;
+
+        this.taskByIdFlight = new SingleFlight<>("getTaskById", coalescingEnabled, meterRegistry);
+        this.tasksByStatusFlight = new SingleFlight<>("getTasksByStatus", coalescingEnabled, meterRegistry);
+        this.searchFlight = new SingleFlight<>("searchTasks", coalescingEnabled, meterRegistry);
     }
 
     /**
      * Get all tasks, ordered by creation date (newest first).
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Task> getAllTasks() {
-        return taskRepository.findAllByOrderByCreatedAtDesc();
+        return taskStore.findAllNewestFirst();
+    }
+
+    /**
+     * Pass every task, newest first, to the consumer without loading them
+     * all into memory (see TaskJsonWriter and TaskStore.forEachNewestFirst).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public void forEachTask(Consumer<Task> consumer) {
+        taskStore.forEachNewestFirst(consumer);
+    }
+
+    /**
+     * Get one page of tasks, ordered by creation date (newest first).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Task> getAllTasks(int page, int size) {
+        return taskStore.findAllNewestFirst(page, size);
+    }
+
+    /**
+     * Get the page of tasks after the given one (the last task of the
+     * previous page), newest first. Costs the same at any depth.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Task> getAllTasksAfter(LocalDateTime createdAt, Long id, int size) {
+        return taskStore.findAllNewestFirstAfter(createdAt, id, size);
     }
 
     /**
      * Get a specific task by ID.
+     * Falls back to the archive when the task is not in the tasks table.
      * Throws TaskNotFoundException if not found.
      */
-    @Transactional(readOnly = true)
-    public Task getTaskById(Long id) {
-        return taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException(id));
+    @ShardRouted
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Task getTaskById(@ShardKey Long id) {
+        return taskByIdFlight.execute(id, () -> taskStore.findById(id)
+                .orElseThrow(() -> new TaskNotFoundException(id)));
     }
 
     /**
-     * Create a new task.
+     * Create a new task (on the next shard).
      */
+    @ShardRouted
     public Task createTask(Task task) {
         // Ensure new tasks start with PENDING status
         task.setStatus(TaskStatus.PENDING);
-        return taskRepository.save(task);
+        Task savedTask = taskStore.save(task);
+        eventPublisher.publishEvent(new TaskStatusChangedEvent(savedTask.getId(), savedTask.getStatus()));
+
+        if (savedTask.getDueAt() != null) {
+            eventPublisher.publishEvent(new TaskDueDateChangedEvent(savedTask.getId(), savedTask.getDueAt()));
+        }
+        return savedTask;
     }
 
     /**
      * Update an existing task.
+     * Fails with OptimisticLockingFailureException (on commit) if the task
+     * is written concurrently, e.g. by a write-behind flush.
      */
-    public Task updateTask(Long id, Task taskDetails) {
-        Task existingTask = getTaskById(id);
+    @ShardRouted
+    public Task updateTask(@ShardKey Long id, Task taskDetails) {
+        Task existingTask = findModifiableTask(id);
         
         existingTask.setTitle(taskDetails.getTitle());
         existingTask.setDescription(taskDetails.getDescription());
         
-        if (taskDetails.getStatus() != null) {
+        if (taskDetails.getStatus() != null && taskDetails.getStatus() != existingTask.getStatus()) {
             existingTask.setStatus(taskDetails.getStatus());
+            eventPublisher.publishEvent(new TaskStatusChangedEvent(id, taskDetails.getStatus()));
+        }
+
+        // A new due date can fire again
+        if (!Objects.equals(existingTask.getDueAt(), taskDetails.getDueAt())) {
+            existingTask.setDueAt(taskDetails.getDueAt());
+            existingTask.setDueFiredAt(null);
+            eventPublisher.publishEvent(new TaskDueDateChangedEvent(id, taskDetails.getDueAt()));
         }
         
-        return taskRepository.save(existingTask);
+        return taskStore.save(existingTask);
     }
 
     /**
      * Update only the status of a task.
      */
-    public Task updateTaskStatus(Long id, TaskStatus status) {
-        Task task = getTaskById(id);
+    @ShardRouted
+    public Task updateTaskStatus(@ShardKey Long id, TaskStatus status) {
+        Task task = findModifiableTask(id);
         task.setStatus(status);
-        return taskRepository.save(task);
+        eventPublisher.publishEvent(new TaskStatusChangedEvent(id, status));
+        return taskStore.save(task);
+    }
+
+    /**
+     * Queue a status change for the write-behind instead of writing it now.
+     * Only the task's version is read (see TaskStore.applyStatusChanges):
+     * the change is skipped if the task is written again before the flush.
+     * 
+     * @return false when write-behind is disabled or its queue is full;
+     *         use updateTaskStatus then
+     */
+    @ShardRouted
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean queueTaskStatus(@ShardKey Long id, TaskStatus status) {
+        TaskStatusWriteBehind writeBehind = statusWriteBehind.getIfAvailable();
+        if (writeBehind == null) {
+            return false;
+        }
+        long version = taskStore.findVersion(id).orElseThrow(() -> new TaskNotFoundException(id));
+        return writeBehind.offer(id, status, version);
     }
 
     /**
      * Delete a task by ID.
      */
-    public void deleteTask(Long id) {
-        Task task = getTaskById(id); // Verify it exists
-        taskRepository.delete(task);
+    @ShardRouted
+    public void deleteTask(@ShardKey Long id) {
+        Task task = findModifiableTask(id); // Verify it exists
+        taskStore.delete(task);
+        eventPublisher.publishEvent(new TaskStatusChangedEvent(id, null));
     }
 
     /**
      * Get all tasks with a specific status.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Task> getTasksByStatus(TaskStatus status) {
-        return taskRepository.findByStatus(status);
+        // Unmodifiable: the same list may be returned to several callers
+        return tasksByStatusFlight.execute(status, () ->
+                Collections.unmodifiableList(taskStore.findByStatus(status)));
+    }
+
+    /**
+     * Get one page of tasks with a specific status, newest first.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Task> getTasksByStatus(TaskStatus status, int page, int size) {
+        return taskStore.findByStatusNewestFirst(status, page, size);
+    }
+
+    /**
+     * Get the page of tasks with a specific status after the given one,
+     * newest first (see getAllTasksAfter).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Task> getTasksByStatusAfter(TaskStatus status, LocalDateTime createdAt, Long id, int size) {
+        return taskStore.findByStatusNewestFirstAfter(status, createdAt, id, size);
+    }
+
+    /**
+     * Number of tasks per status (every status is present, possibly with 0).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<TaskStatus, Long> countTasksByStatus() {
+        return taskStore.countByStatus();
     }
 
     /**
      * Search tasks by title.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Task> searchTasks(String query) {
-        return taskRepository.findByTitleContainingIgnoreCase(query);
+        return searchFlight.execute(query, () ->
+                Collections.unmodifiableList(taskStore.searchByTitle(query)));
+    }
+
+    /**
+     * Find tasks due before the given time that haven't fired yet
+     * (used by TaskDueScheduler to fill its timing wheel).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<DueTask> findTasksDueBefore(LocalDateTime until) {
+        return taskStore.findDueBefore(until, EXPIRABLE_STATUSES);
+    }
+
+    /**
+     * Fire the overdue transition for a batch of tasks.
+     * 
+     * Only tasks that are still due and not fired yet are handled; with
+     * JPA, rows another replica is firing right now are skipped.
+     * Publishes a TaskOverdueEvent per fired task.
+     * 
+     * @param cancel true to also move the tasks to CANCELLED
+     * @return IDs of the tasks that were fired by this call
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> fireDueTasks(Collection<Long> taskIds, boolean cancel) {
+        TaskStatus newStatus = cancel ? TaskStatus.CANCELLED : null;
+        return taskStore.fireDue(taskIds, newStatus, firedIds -> {
+            if (cancel) {
+                for (Long id : firedIds) {
+                    eventPublisher.publishEvent(new TaskStatusChangedEvent(id, TaskStatus.CANCELLED));
+                }
+            }
+            for (Long id : firedIds) {
+                eventPublisher.publishEvent(new TaskOverdueEvent(id, cancel));
+            }
+        });
+    }
+
+    /**
+     * Look up a task for modification.
+     * Only the tasks table is checked; archived tasks are read-only.
+     */
+    private Task findModifiableTask(Long id) {
+        return taskStore.findModifiable(id)
+                .orElseThrow(() -> new TaskNotFoundException(id));
     }
 }
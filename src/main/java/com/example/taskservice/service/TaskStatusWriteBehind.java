@@ -0,0 +1,310 @@
+package com.example.taskservice.service;
+
+import com.example.taskservice.event.TaskStatusChangedEvent;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.store.TaskStore;
+import com.example.taskservice.store.TaskStore.StatusChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind for status updates (PATCH /api/tasks/{id}/status).
+ *
+ * Workers that change the same task's status several times a second would
+ * otherwise cost one transaction per update. With write-behind enabled:
+ * - an update is queued and acknowledged (202 Accepted) right away
+ * - updates of the same task are coalesced: only the latest is written
+ * - every flush-interval, all queued updates are written in batches
+ *   (one UPDATE ... FROM (VALUES ...) statement per shard and batch, see
+ *   TaskStore.applyStatusChanges) and TaskStatusChangedEvents are
+ *   published for the applied ones
+ *
+ * The queue holds at most max-pending tasks. When it is full, offer
+ * returns false and the caller writes synchronously instead.
+ *
+ * Consistency:
+ * - Reads may return the previous status until the next flush
+ * - Every change carries the task's version, read when it is queued; the
+ *   flush skips tasks written since (e.g. by PUT or a synchronous status
+ *   update on any replica), so an older queued status never overwrites a
+ *   newer write. Clocks are not compared.
+ * - Applying a change increments the version too, so a PUT that read the
+ *   task before the flush fails with 409 instead of overwriting the status.
+ *   A change queued here while the flush wrote the same task is moved to
+ *   the new version (it was based on the applied one); a change queued
+ *   elsewhere, or that read the version just before the flush committed,
+ *   is skipped.
+ * - Changes queued on different replicas for the same task are applied in
+ *   flush order
+ * - Unknown tasks get a 404 when queueing; tasks deleted before the flush
+ *   are skipped
+ *
+ * Failures:
+ * - Changes of a failed batch are put back (unless a newer one was queued)
+ *   and retried with the next flushes, one change per statement, so a
+ *   change the database rejects only holds up itself
+ * - After max-retries failed retries a change is dropped
+ * - When the database rejected a statement the flush goes on with the next
+ *   batch; on any other failure (e.g. no connection) it stops and puts the
+ *   rest back untried
+ * - Changes still queued when the process dies are lost; a graceful
+ *   shutdown flushes them and drops what can't be written
+ *
+ * Metrics:
+ * - taskservice.write_behind.changes{outcome=queued|coalesced|queue_full|applied|skipped|dropped}
+ * - taskservice.write_behind.pending: tasks with a queued change
+ * - taskservice.write_behind.flush: time to write one flush
+ */
+@Component
+@ConditionalOnProperty(name = "taskservice.write-behind.enabled", havingValue = "true")
+public class TaskStatusWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatusWriteBehind.class);
+
+    private final TaskStore taskStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPending;
+    private final int batchSize;
+    private final int maxRetries;
+
+    // Task ID -> latest queued change; pendingCount tracks its size exactly
+    private final ConcurrentHashMap<Long, Queued> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final Counter queued;
+    private final Counter coalesced;
+    private final Counter queueFull;
+    private final Counter applied;
+    private final Counter skipped;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    public TaskStatusWriteBehind(TaskStore taskStore,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${taskservice.write-behind.max-pending:10000}") int maxPending,
+                                 @Value("${taskservice.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${taskservice.write-behind.max-retries:10}") int maxRetries) {
+        this.taskStore = taskStore;
+        this.eventPublisher = eventPublisher;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+
+        this.queued = changeCounter("queued", meterRegistry);
+        this.coalesced = changeCounter("coalesced", meterRegistry);
+        this.queueFull = changeCounter("queue_full", meterRegistry);
+        this.applied = changeCounter("applied", meterRegistry);
+        this.skipped = changeCounter("skipped", meterRegistry);
+        this.dropped = changeCounter("dropped", meterRegistry);
+
+        Gauge.builder("taskservice.write_behind.pending", pendingCount, AtomicInteger::get)
+                .description("Tasks with a queued status change")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("taskservice.write_behind.flush")
+                .description("Time to write the queued status changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a status change.
+     *
+     * @param version the task's version (see TaskStore.findVersion)
+     * @return false if the queue is full; the change was not queued
+     */
+    public boolean offer(Long id, TaskStatus status, long version) {
+        Queued change = new Queued(new StatusChange(id, status, version, LocalDateTime.now()), 0);
+
+        // Already queued: replace it (doesn't need a new slot)
+        if (pending.replace(id, change) != null) {
+            coalesced.increment();
+            return true;
+        }
+
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            queueFull.increment();
+            return false;
+        }
+        if (pending.put(id, change) != null) {
+            // Another request queued this task in the meantime (and took a slot)
+            pendingCount.decrementAndGet();
+            coalesced.increment();
+        } else {
+            queued.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Write all queued changes.
+     */
+    @Scheduled(fixedDelayString = "${taskservice.write-behind.flush-interval:PT0.1S}",
+               initialDelayString = "${taskservice.write-behind.flush-interval:PT0.1S}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<List<Queued>> batches = batches(drain());
+        for (int i = 0; i < batches.size(); i++) {
+            List<Queued> batch = batches.get(i);
+            try {
+                List<StatusChange> written = taskStore.applyStatusChanges(
+                        batch.stream().map(Queued::change).toList(), this::publishEvents);
+                rebase(written);
+                applied.increment(written.size());
+                skipped.increment(batch.size() - written.size());
+            } catch (RuntimeException e) {
+                retryOrDrop(batch, e);
+                if (!(e instanceof NonTransientDataAccessException)) {
+                    // Database unavailable (or unknown failure): the other batches would fail too
+                    batches.subList(i + 1, batches.size()).forEach(this::requeue);
+                    break;
+                }
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Write what is still queued before the store shuts down; the rest is dropped.
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+        int lost = drain().size();
+        if (lost > 0) {
+            dropped.increment(lost);
+            log.error("{} queued status changes could not be written before shutdown", lost);
+        }
+    }
+
+    private List<Queued> drain() {
+        List<Queued> changes = new ArrayList<>(pendingCount.get());
+        for (Long id : pending.keySet()) {
+            Queued change = pending.remove(id);
+            if (change != null) {
+                pendingCount.decrementAndGet();
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * New changes in batches of batch-size, then changes that failed
+     * before, one per batch.
+     */
+    private List<List<Queued>> batches(List<Queued> changes) {
+        List<List<Queued>> batches = new ArrayList<>();
+        List<List<Queued>> retries = new ArrayList<>();
+        List<Queued> batch = new ArrayList<>();
+        for (Queued change : changes) {
+            if (change.failures() > 0) {
+                retries.add(List.of(change));
+                continue;
+            }
+            batch.add(change);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        batches.addAll(retries);
+        return batches;
+    }
+
+    /**
+     * Changes queued during the flush that read the version the applied
+     * change was written over: move them to the version it wrote, so they
+     * are not skipped as if another write had come in between.
+     */
+    private void rebase(List<StatusChange> written) {
+        for (StatusChange change : written) {
+            pending.computeIfPresent(change.id(), (id, queuedChange) ->
+                    queuedChange.change().version() == change.version()
+                            ? new Queued(queuedChange.change().withVersion(change.version() + 1),
+                                    queuedChange.failures())
+                            : queuedChange);
+        }
+    }
+
+    /**
+     * Put back the changes of a failed batch, or drop those that failed
+     * too often. Only drops are logged with the stack trace (a retry is
+     * logged every flush while the database is unavailable).
+     */
+    private void retryOrDrop(List<Queued> batch, RuntimeException e) {
+        List<Queued> retry = new ArrayList<>(batch.size());
+        for (Queued change : batch) {
+            if (change.failures() < maxRetries) {
+                retry.add(new Queued(change.change(), change.failures() + 1));
+            }
+        }
+
+        int droppedNow = batch.size() - retry.size();
+        if (droppedNow > 0) {
+            dropped.increment(droppedNow);
+            log.error("Dropped {} queued status changes after {} failed attempts", droppedNow, maxRetries + 1, e);
+        }
+        if (!retry.isEmpty()) {
+            log.warn("Could not write {} queued status changes, retrying with the next flush: {}",
+                    retry.size(), e.toString());
+            requeue(retry);
+        }
+    }
+
+    /**
+     * Put back changes that were not written, unless the task has a newer
+     * queued change. May exceed max-pending for a moment.
+     */
+    private void requeue(List<Queued> changes) {
+        for (Queued change : changes) {
+            if (pending.putIfAbsent(change.change().id(), change) == null) {
+                pendingCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void publishEvents(List<StatusChange> changes) {
+        for (StatusChange change : changes) {
+            eventPublisher.publishEvent(new TaskStatusChangedEvent(change.id(), change.status()));
+        }
+    }
+
+    /**
+     * A queued change and how often writing it has failed.
+     */
+    private record Queued(StatusChange change, int failures) {
+    }
+
+    private static Counter changeCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("taskservice.write_behind.changes")
+                .description("Status changes by what happened to them in the write-behind queue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.taskservice.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on.
+ *
+ * Read by ShardRoutingDataSource whenever a connection is opened, so it
+ * must be set before a transaction starts (see ShardRoutingAspect and
+ * ShardRouter). Without a shard, connections go to shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * The current shard, or null if none is set.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run the action with the given shard as current shard.
+     * A null shard runs the action with the shard unchanged.
+     */
+    public static <T> T call(Integer shard, Supplier<T> action) {
+        if (shard == null) {
+            return action.get();
+        }
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(Integer shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.taskservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * The connection pools of all shards, by shard index.
+ *
+ * Deliberately not a DataSource itself: it is not picked up as the
+ * application DataSource (or wrapped by DataSourceProxyConfig).
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> dataSources;
+
+    public ShardDataSources(List<HikariDataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public HikariDataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.taskservice.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method on one shard (see ShardRoutingAspect):
+ * - the shard of the task ID parameter annotated with @ShardKey, or
+ * - the next shard for new tasks if there is no @ShardKey parameter
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardRouted {
+}
@@ -0,0 +1,144 @@
+package com.example.taskservice.sharding;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Shard lookup and cross-shard execution.
+ *
+ * Task IDs carry their shard in the bits above SHARD_SHIFT:
+ *   id = (shard index << 48) + per-shard sequence value
+ * (the column default set by the V4 migration), so any task can be found
+ * from its ID alone. At most MAX_SHARDS shards keeps every ID below 2^53,
+ * i.e. exact as a JSON/JavaScript number.
+ *
+ * Without sharding (taskservice.sharding.enabled=false) there is exactly
+ * one shard and everything runs on the caller's thread as before.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int SHARD_SHIFT = 48;
+    public static final int MAX_SHARDS = 32;
+
+    private final ShardDataSources shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public ShardRouter(ObjectProvider<ShardDataSources> shards) {
+        this.shards = shards.getIfAvailable();
+    }
+
+    public boolean isSharded() {
+        return shards != null;
+    }
+
+    public int shardCount() {
+        return shards != null ? shards.size() : 1;
+    }
+
+    /**
+     * Shard index encoded in a task ID (not checked against shardCount).
+     */
+    public static int shardOf(long taskId) {
+        return (int) (taskId >>> SHARD_SHIFT);
+    }
+
+    public boolean isValidShard(int shard) {
+        return shard >= 0 && shard < shardCount();
+    }
+
+    /**
+     * Shard for a new task: round-robin, so writes spread evenly.
+     */
+    public int nextShardForNewTask() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount());
+    }
+
+    /**
+     * The raw connection pool of a shard (e.g. for Flyway).
+     * Only available with sharding enabled.
+     */
+    public DataSource shardDataSource(int shard) {
+        if (shards == null) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        return shards.get(shard);
+    }
+
+    /**
+     * Run the action on the given shard.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return isSharded() ? ShardContext.call(shard, action) : action.get();
+    }
+
+    /**
+     * Run the action once per shard, one shard after the other, on the caller's thread.
+     */
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            int current = shard;
+            onShard(current, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Run the query on every shard in parallel (one virtual thread per
+     * shard) and return the results by shard index.
+     *
+     * The query runs on another thread: it must open its own transaction
+     * (e.g. TransactionTemplate) rather than rely on the caller's.
+     */
+    public <T> List<T> fanOut(IntFunction<T> query) {
+        if (shardCount() == 1) {
+            return Collections.singletonList(onShard(0, () -> query.apply(0)));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(shardCount());
+            for (int shard = 0; shard < shardCount(); shard++) {
+                int current = shard;
+                futures.add(executor.submit(() -> ShardContext.call(current, () -> query.apply(current))));
+            }
+
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(await(future));
+            }
+            return results;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard query", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.taskservice.sharding;
+
+import com.example.taskservice.exception.TaskNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Sets the ShardContext for @ShardRouted methods.
+ *
+ * Ordered before the @Transactional advice: the transaction (and its
+ * connection) must be opened on the right shard.
+ * Does nothing without sharding.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    public ShardRoutingAspect(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Around("@annotation(com.example.taskservice.sharding.ShardRouted)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return joinPoint.proceed();
+        }
+
+        Integer previous = ShardContext.enter(shardFor(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private int shardFor(ProceedingJoinPoint joinPoint) {
+        Annotation[][] parameterAnnotations = ((MethodSignature) joinPoint.getSignature())
+                .getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    Long taskId = (Long) args[i];
+                    int shard = ShardRouter.shardOf(taskId);
+                    if (!shardRouter.isValidShard(shard)) {
+                        throw new TaskNotFoundException(taskId);
+                    }
+                    return shard;
+                }
+            }
+        }
+        return shardRouter.nextShardForNewTask();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.taskservice.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource that hands out connections of the current shard (ShardContext).
+ *
+ * Registered as the application's DataSource when sharding is enabled, so
+ * JPA, transactions and repositories work unchanged; only the choice of
+ * database moves to ShardContext. Falls back to shard 0 when no shard is set.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
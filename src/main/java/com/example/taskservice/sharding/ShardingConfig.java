@@ -0,0 +1,83 @@
+package com.example.taskservice.sharding;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sharded storage: one PostgreSQL database per shard.
+ *
+ * Replaces Spring Boot's single DataSource with a ShardRoutingDataSource
+ * over one Hikari pool per configured shard. JPA and repositories are
+ * unchanged; TaskService decides which shard(s) a call goes to:
+ * - By task ID (the shard index is part of the ID) for single-task calls
+ * - Round-robin for new tasks
+ * - All shards in parallel for lists/search/counts (merged newest first)
+ *
+ * Flyway migrates every shard (see FlywayConfig).
+ *
+ * Enable with taskservice.sharding.enabled=true and list the shards under
+ * taskservice.sharding.shards (see application-sharded.yaml).
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskservice.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties,
+                                             Environment environment,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty() || shards.size() > ShardRouter.MAX_SHARDS) {
+            throw new IllegalStateException("taskservice.sharding.shards must list between 1 and "
+                    + ShardRouter.MAX_SHARDS + " databases, found " + shards.size());
+        }
+
+        List<HikariDataSource> dataSources = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+
+            // Same pool settings as the single-database setup
+            HikariConfig config = new HikariConfig();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername());
+            config.setPassword(shard.getPassword());
+            config.setPoolName("taskservice-shard-" + i);
+            meterRegistry.ifAvailable(config::setMetricRegistry);
+
+            dataSources.add(new HikariDataSource(config));
+        }
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shardDataSources.size(); i++) {
+            targets.put(i, shardDataSources.get(i));
+        }
+
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(targets);
+        dataSource.setDefaultTargetDataSource(shardDataSources.get(0));
+        return dataSource;
+    }
+}
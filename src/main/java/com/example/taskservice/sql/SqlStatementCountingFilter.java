@@ -0,0 +1,91 @@
+package com.example.taskservice.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and database time of every HTTP request.
+ *
+ * Metrics (per endpoint, i.e. method + URI pattern like /api/tasks/{id}):
+ * - taskservice.http.sql.statements: statements per request
+ * - taskservice.http.sql.time: database time per request
+ *
+ * Also logs a warning when one statement runs n-plus-one-threshold times
+ * or more within one request (typical N+1 pattern).
+ *
+ * Statements come from SqlStatementListener (see DataSourceProxyConfig).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "taskservice.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public SqlStatementCountingFilter(MeterRegistry meterRegistry,
+                                      @Value("${taskservice.sql.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementStats stats = SqlStatementStats.start()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                record(request, stats);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("taskservice.http.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("taskservice.http.sql.time")
+                .description("Database time per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotalNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatementCount() > 0) {
+            log.debug("{} {}: {} SQL statements, {} ms", method, uri, stats.getStatementCount(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos()));
+        }
+        for (Map.Entry<String, Integer> repeated : stats.getRepeatedStatements(nPlusOneThreshold).entrySet()) {
+            log.warn("Possible N+1 in {} {}: statement executed {} times: {}",
+                    method, uri, repeated.getValue(), repeated.getKey());
+        }
+    }
+}
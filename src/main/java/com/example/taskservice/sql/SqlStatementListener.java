@@ -0,0 +1,171 @@
+package com.example.taskservice.sql;
+
+import com.example.taskservice.sharding.ShardContext;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * datasource-proxy listener: counts every statement into the current
+ * SqlStatementStats scope and reports slow queries.
+ *
+ * Slow queries (over taskservice.sql.slow-query-threshold):
+ * - Logged, with their bind parameters if log-parameters is true
+ * - Optionally (explain-slow-queries) followed by their EXPLAIN plan. EXPLAIN runs on a
+ *   background thread against the raw (unproxied) DataSource with the
+ *   same parameters, at most once per statement per explain-interval,
+ *   so a burst of slow queries doesn't double the load on the database.
+ */
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementListener.class);
+
+    private static final String START_NANOS = "taskservice.startNanos";
+    private static final int MAX_EXPLAINED_STATEMENTS = 1000;
+
+    private final DataSource rawDataSource;
+    private final long slowQueryThresholdNanos;
+    private final boolean logParameters;
+    private final boolean explainSlowQueries;
+    private final long explainIntervalNanos;
+
+    private final Map<String, Long> lastExplainedNanos = new ConcurrentHashMap<>();
+    private final ExecutorService explainExecutor;
+
+    public SqlStatementListener(DataSource rawDataSource,
+                                Duration slowQueryThreshold,
+                                boolean logParameters,
+                                boolean explainSlowQueries,
+                                Duration explainInterval) {
+        this.rawDataSource = rawDataSource;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.logParameters = logParameters;
+        this.explainSlowQueries = explainSlowQueries;
+        this.explainIntervalNanos = explainInterval.toNanos();
+
+        // One daemon thread, small queue; EXPLAINs beyond that are dropped
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = startNanos != null
+                ? System.nanoTime() - startNanos
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlStatementStats.record(queryInfo.getQuery(), elapsedNanos / queryInfoList.size());
+        }
+
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                reportSlowQuery(queryInfo, elapsedNanos);
+            }
+        }
+    }
+
+    private void reportSlowQuery(QueryInfo queryInfo, long elapsedNanos) {
+        List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                ? List.of()
+                : queryInfo.getParametersList().get(0);
+
+        if (logParameters) {
+            log.warn("Slow query ({} ms): {} params={}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), queryInfo.getQuery(), parameterValues(parameters));
+        } else {
+            log.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), queryInfo.getQuery());
+        }
+
+        if (explainSlowQueries && isExplainable(queryInfo.getQuery()) && claimExplain(queryInfo.getQuery())) {
+            // Copy: the proxy may reuse its parameter lists
+            List<ParameterSetOperation> parametersCopy = new ArrayList<>(parameters);
+            // EXPLAIN on the same shard the query ran on
+            Integer shard = ShardContext.current();
+            explainExecutor.execute(() -> ShardContext.run(shard, () -> explain(queryInfo.getQuery(), parametersCopy)));
+        }
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters) {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = rawDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            // Replay setLong/setString/setNull/... with the original arguments
+            for (ParameterSetOperation parameter : parameters) {
+                parameter.getMethod().invoke(statement, parameter.getArgs());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append('\n').append(resultSet.getString(1));
+                }
+            }
+            log.warn("EXPLAIN {}{}", sql, plan);
+        } catch (Exception e) {
+            log.debug("Could not EXPLAIN slow query {}", sql, e);
+        }
+    }
+
+    /**
+     * Only statements EXPLAIN accepts without side effects (no ANALYZE, so
+     * UPDATE/DELETE are planned, not executed).
+     */
+    private static boolean isExplainable(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with")
+                || start.startsWith("update") || start.startsWith("delete");
+    }
+
+    private boolean claimExplain(String sql) {
+        if (lastExplainedNanos.size() > MAX_EXPLAINED_STATEMENTS) {
+            lastExplainedNanos.clear();
+        }
+        long now = System.nanoTime();
+        Long previous = lastExplainedNanos.get(sql);
+        if (previous != null && now - previous < explainIntervalNanos) {
+            return false;
+        }
+        return previous == null
+                ? lastExplainedNanos.putIfAbsent(sql, now) == null
+                : lastExplainedNanos.replace(sql, previous, now);
+    }
+
+    private static List<Object> parameterValues(List<ParameterSetOperation> parameters) {
+        List<Object> values = new ArrayList<>(parameters.size());
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            boolean isNull = parameter.getMethod().getName().equals("setNull");
+            values.add(isNull || args.length < 2 ? null : args[1]);
+        }
+        return values;
+    }
+}
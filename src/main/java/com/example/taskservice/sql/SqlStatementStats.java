@@ -0,0 +1,108 @@
+package com.example.taskservice.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL statements executed on the current thread while a scope is open.
+ *
+ * Scopes are opened by SqlStatementCountingFilter (one per HTTP request)
+ * and by SqlStatementBudget (tests). Scopes nest: a statement is counted
+ * in every open scope of the thread.
+ *
+ * Only statements executed on the opening thread are seen; this is the
+ * case for all MVC endpoints (blocking JDBC on the request thread).
+ *
+ * Not thread-safe; a scope belongs to one thread.
+ */
+public final class SqlStatementStats implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    // Bounds so a runaway request can't grow these without limit
+    private static final int MAX_STATEMENTS = 100;
+    private static final int MAX_DISTINCT_STATEMENTS = 100;
+
+    private final SqlStatementStats parent;
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statementCount;
+    private long totalNanos;
+
+    private SqlStatementStats(SqlStatementStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Open a scope on the current thread. Close it (try-with-resources) when done.
+     */
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Called by SqlStatementListener for every executed statement.
+     */
+    static void record(String sql, long elapsedNanos) {
+        for (SqlStatementStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.add(sql, elapsedNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * The first statements in execution order (at most 100).
+     */
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Statements executed at least minExecutions times (typical N+1 symptom:
+     * the same SELECT once per row of a previous result).
+     */
+    public Map<String, Integer> getRepeatedStatements(int minExecutions) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.forEach((sql, executions) -> {
+            if (executions >= minExecutions) {
+                repeated.put(sql, executions);
+            }
+        });
+        return repeated;
+    }
+
+    private void add(String sql, long elapsedNanos) {
+        statementCount++;
+        totalNanos += elapsedNanos;
+        if (statements.size() < MAX_STATEMENTS) {
+            statements.add(sql);
+        }
+        if (executionsBySql.size() < MAX_DISTINCT_STATEMENTS || executionsBySql.containsKey(sql)) {
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+}
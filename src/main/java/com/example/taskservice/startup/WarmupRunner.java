@@ -0,0 +1,172 @@
+package com.example.taskservice.startup;
+
+import com.example.taskservice.controller.TaskController;
+import com.example.taskservice.dto.CreateTaskRequest;
+import com.example.taskservice.dto.TaskDTO;
+import com.example.taskservice.dto.TaskJsonWriter;
+import com.example.taskservice.dto.TaskJsonWriter.TaskArray;
+import com.example.taskservice.exception.TaskNotFoundException;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.service.TaskService;
+import com.example.taskservice.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JIT warm-up stage, run once before the pod reports ready.
+ *
+ * Spring Boot only switches the readiness state to ACCEPTING_TRAFFIC after
+ * all ApplicationRunners have finished, so while this runs the readiness
+ * probe fails and Kubernetes keeps the pod out of the Service endpoints.
+ *
+ * The warm-up:
+ * 1. Opens the connection pool up front (no connection setup on first requests;
+ *    skipped without a database, i.e. with the journal storage engine)
+ * 2. Calls the hot TaskController/TaskService read paths with synthetic
+ *    arguments that never match real data (ID -1, random search string)
+ * 3. Runs Jackson and TaskJsonWriter over synthetic tasks and request bodies
+ *
+ * Failures are logged and never block startup; a cold pod is better than
+ * no pod.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final TaskController taskController;
+    private final TaskService taskService;
+    private final TaskJsonWriter taskJsonWriter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int connections;
+    private final int dbIterations;
+    private final int serializationIterations;
+
+    public WarmupRunner(ObjectProvider<DataSource> dataSource,
+                        ShardRouter shardRouter,
+                        TaskController taskController,
+                        TaskService taskService,
+                        TaskJsonWriter taskJsonWriter,
+                        ObjectMapper objectMapper,
+                        @Value("${taskservice.warmup.enabled:true}") boolean enabled,
+                        @Value("${taskservice.warmup.connections:${spring.datasource.hikari.minimum-idle:2}}") int connections,
+                        @Value("${taskservice.warmup.db-iterations:50}") int dbIterations,
+                        @Value("${taskservice.warmup.serialization-iterations:2000}") int serializationIterations) {
+        this.dataSource = dataSource.getIfAvailable();
+        this.shardRouter = shardRouter;
+        this.taskController = taskController;
+        this.taskService = taskService;
+        this.taskJsonWriter = taskJsonWriter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.connections = connections;
+        this.dbIterations = dbIterations;
+        this.serializationIterations = serializationIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            fillConnectionPools();
+            exerciseReadPaths();
+            exerciseSerialization();
+            log.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Warm-up failed after {} ms, continuing startup", (System.nanoTime() - start) / 1_000_000, e);
+        }
+    }
+
+    /**
+     * Fills the pool of every shard (just the one pool without sharding).
+     */
+    private void fillConnectionPools() {
+        if (dataSource == null) {
+            return;
+        }
+        shardRouter.forEachShard(shard -> {
+            try {
+                fillConnectionPool();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not open connections to shard " + shard, e);
+            }
+        });
+    }
+
+    /**
+     * Borrows all connections at once so the pool has to open each of them,
+     * then hands them back.
+     */
+    private void fillConnectionPool() throws SQLException {
+        List<Connection> borrowed = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+    }
+
+    private void exerciseReadPaths() {
+        String query = "warmup-" + UUID.randomUUID();
+        for (int i = 0; i < dbIterations; i++) {
+            try {
+                taskController.getTaskById(-1L);
+            } catch (TaskNotFoundException expected) {
+                // Synthetic ID never exists
+            }
+            taskService.searchTasks(query);
+        }
+    }
+
+    private void exerciseSerialization() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskDTO> tasks = new ArrayList<>();
+        List<Task> entities = new ArrayList<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            tasks.add(new TaskDTO(1L, "Warm-up task", "Synthetic task used for JIT warm-up", status, now, now, now.plusDays(1)));
+
+            Task entity = new Task("Warm-up task", "Synthetic task used for JIT warm-up");
+            entity.setStatus(status);
+            entity.setDueAt(now.plusDays(1));
+            entities.add(entity);
+        }
+        byte[] requestBody = objectMapper.writeValueAsBytes(new CreateTaskRequest("Warm-up task", "Synthetic"));
+
+        for (int i = 0; i < serializationIterations; i++) {
+            objectMapper.writeValueAsBytes(tasks);
+            objectMapper.readValue(requestBody, CreateTaskRequest.class);
+
+            // List endpoints (see TaskController)
+            try (TaskArray array = taskJsonWriter.openArray(OutputStream.nullOutputStream())) {
+                entities.forEach(array::write);
+            }
+        }
+    }
+}
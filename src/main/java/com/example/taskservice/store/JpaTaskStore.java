@@ -0,0 +1,431 @@
+package com.example.taskservice.store;
+
+import com.example.taskservice.index.TaskStatusIndex;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.repository.TaskRepository;
+import com.example.taskservice.repository.TaskRepository.StatusCount;
+import com.example.taskservice.sharding.ShardRouter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * TaskStore backed by PostgreSQL through JPA (TaskRepository).
+ *
+ * Transactions:
+ * - Reads open their own read-only transaction (readOnlyTransaction), so
+ *   callers sharing a coalesced read don't hold a connection
+ * - findModifiable, save and delete run in the caller's transaction
+ *   (TaskService is @Transactional)
+ *
+ * Sharding (see ShardingConfig):
+ * - Single-task operations run on the shard set by the caller
+ *   (@ShardRouted on TaskService)
+ * - Lists, search, counts and due-date queries run on all shards in
+ *   parallel (ShardRouter.fanOut), one transaction per shard, and are
+ *   merged newest first
+ *
+ * Status index:
+ * When the optional TaskStatusIndex is enabled and built, status counts
+ * and paged status queries are answered from it instead of scanning the
+ * tasks table.
+ */
+@Component
+@ConditionalOnProperty(name = "taskservice.storage.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaTaskStore implements TaskStore {
+
+    // Merge order for results from several shards
+    private static final Comparator<Task> NEWEST_FIRST = Comparator
+            .comparing(Task::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Task::getId, Comparator.reverseOrder());
+
+    // Tasks loaded per transaction by forEachNewestFirst
+    static final int STREAM_BATCH_SIZE = 500;
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ObjectProvider<TaskStatusIndex> statusIndex;
+    private final ShardRouter shardRouter;
+
+    public JpaTaskStore(TaskRepository taskRepository,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        ObjectProvider<TaskStatusIndex> statusIndex,
+                        ShardRouter shardRouter) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.statusIndex = statusIndex;
+        this.shardRouter = shardRouter;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Falls back to the archive when the task is not in the tasks table.
+     */
+    @Override
+    public Optional<Task> findById(Long id) {
+        return readOnlyTransaction.execute(tx -> taskRepository.findById(id)
+                .or(() -> taskRepository.findArchivedById(id)));
+    }
+
+    /**
+     * Only the tasks table is checked; archived tasks are read-only.
+     */
+    @Override
+    public Optional<Task> findModifiable(Long id) {
+        return taskRepository.findById(id);
+    }
+
+    @Override
+    public OptionalLong findVersion(Long id) {
+        return readOnlyTransaction.execute(tx -> taskRepository.findVersionById(id))
+                .map(OptionalLong::of)
+                .orElseGet(OptionalLong::empty);
+    }
+
+    @Override
+    public Task save(Task task) {
+        return taskRepository.save(task);
+    }
+
+    @Override
+    public void delete(Task task) {
+        taskRepository.delete(task);
+    }
+
+    @Override
+    public List<Task> findAllNewestFirst() {
+        return mergeNewestFirst(shardRouter.fanOut(shard -> readOnlyTransaction.execute(tx ->
+                taskRepository.findAllByOrderByCreatedAtDesc())));
+    }
+
+    @Override
+    public List<Task> findAllNewestFirst(int page, int size) {
+        return newestFirstPage(page, size, taskRepository::findAllByOrderByCreatedAtDesc);
+    }
+
+    /**
+     * Tasks are loaded in batches of STREAM_BATCH_SIZE, each in its own
+     * short read-only transaction (per shard), and passed to the consumer
+     * once those have ended. A slow consumer (a client reading a large
+     * response) never holds a connection or a transaction open, and only
+     * one batch is in memory at a time.
+     *
+     * Each batch continues after the last task of the previous one (keyset
+     * on created_at, id; see keysetPage). created_at never changes, so no
+     * task is passed twice; but batches are separate snapshots, so tasks
+     * created, deleted or archived while the list is being written may be
+     * missing or still included.
+     */
+    @Override
+    public void forEachNewestFirst(Consumer<Task> consumer) {
+        List<Task> batch = keysetPage(STREAM_BATCH_SIZE, taskRepository::findNewestFirst);
+        while (!batch.isEmpty()) {
+            batch.forEach(consumer);
+            if (batch.size() < STREAM_BATCH_SIZE) {
+                break;
+            }
+            Task last = batch.get(batch.size() - 1);
+            batch = findAllNewestFirstAfter(last.getCreatedAt(), last.getId(), STREAM_BATCH_SIZE);
+        }
+    }
+
+    @Override
+    public List<Task> findAllNewestFirstAfter(LocalDateTime createdAt, Long id, int size) {
+        return keysetPage(size, batch -> taskRepository.findNewestFirstAfter(createdAt, id, batch));
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return mergeNewestFirst(shardRouter.fanOut(shard -> readOnlyTransaction.execute(tx ->
+                taskRepository.findByStatus(status))));
+    }
+
+    /**
+     * One database: pages are ordered by ID, highest first. IDs are assigned
+     * in creation order, so this is "newest first", and it is the order of
+     * the status index, so both paths below return the same pages.
+     * - With the status index: the IDs come from the index and only those
+     *   rows are loaded by primary key
+     * - Without it: a LIMIT/OFFSET query on the tasks table
+     *
+     * Several shards: IDs of different shards are not in creation order, so
+     * pages are merged by creation time (the index is not available).
+     */
+    @Override
+    public List<Task> findByStatusNewestFirst(TaskStatus status, int page, int size) {
+        if (shardRouter.shardCount() > 1) {
+            return newestFirstPage(page, size, pageable ->
+                    taskRepository.findByStatusOrderByCreatedAtDesc(status, pageable));
+        }
+
+        TaskStatusIndex index = readyStatusIndex();
+        if (index == null) {
+            return shardRouter.onShard(0, () -> readOnlyTransaction.execute(tx ->
+                    taskRepository.findByStatusOrderByIdDesc(status, PageRequest.of(page, size))));
+        }
+        return indexedStatusPage(index, status, page, size);
+    }
+
+    /**
+     * Same order as findByStatusNewestFirst: by ID with one database, by
+     * creation time across shards.
+     */
+    @Override
+    public List<Task> findByStatusNewestFirstAfter(TaskStatus status, LocalDateTime createdAt, Long id, int size) {
+        if (shardRouter.shardCount() > 1) {
+            return keysetPage(size, pageable ->
+                    taskRepository.findByStatusNewestFirstAfter(status, createdAt, id, pageable));
+        }
+        return shardRouter.onShard(0, () -> readOnlyTransaction.execute(tx ->
+                taskRepository.findByStatusAndIdLessThanOrderByIdDesc(status, id, PageRequest.of(0, size))));
+    }
+
+    /**
+     * Loads the page's IDs from the index, then the rows. A row may be gone
+     * or have another status by now (the index lags behind other replicas
+     * until its next rebuild); more IDs are read until the page is full or
+     * the index has no more.
+     */
+    private List<Task> indexedStatusPage(TaskStatusIndex index, TaskStatus status, int page, int size) {
+        List<Task> result = new ArrayList<>(size);
+        long skip = (long) page * size;
+        while (result.size() < size) {
+            List<Long> ids = index.idsNewestFirst(status, skip, size);
+            if (ids.isEmpty()) {
+                break;
+            }
+            skip += ids.size();
+
+            List<Task> tasks = new ArrayList<>(shardRouter.onShard(0, () ->
+                    readOnlyTransaction.execute(tx -> taskRepository.findAllById(ids))));
+            tasks.removeIf(task -> task.getStatus() != status);
+            tasks.sort(Comparator.comparing(Task::getId).reversed());
+            result.addAll(tasks.subList(0, Math.min(tasks.size(), size - result.size())));
+
+            if (ids.size() < size) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<TaskStatus, Long> countByStatus() {
+        TaskStatusIndex index = readyStatusIndex();
+        if (index != null) {
+            return index.counts();
+        }
+
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        List<List<StatusCount>> shardCounts = shardRouter.fanOut(shard ->
+                readOnlyTransaction.execute(tx -> taskRepository.countGroupedByStatus()));
+        for (List<StatusCount> shardCount : shardCounts) {
+            for (StatusCount count : shardCount) {
+                counts.merge(count.getStatus(), count.getTotal(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<Task> searchByTitle(String query) {
+        return mergeNewestFirst(shardRouter.fanOut(shard -> readOnlyTransaction.execute(tx ->
+                taskRepository.findByTitleContainingIgnoreCase(query))));
+    }
+
+    @Override
+    public List<DueTask> findDueBefore(LocalDateTime until, Collection<TaskStatus> statuses) {
+        List<DueTask> dueTasks = new ArrayList<>();
+        shardRouter.fanOut(shard -> readOnlyTransaction.execute(tx ->
+                taskRepository.findDueTasks(until, statuses))).forEach(dueTasks::addAll);
+        return dueTasks;
+    }
+
+    /**
+     * Rows another replica is firing right now are skipped (SKIP LOCKED).
+     * Runs one transaction per shard involved; onFired is called inside it.
+     */
+    @Override
+    public List<Long> fireDue(Collection<Long> taskIds, TaskStatus newStatus, Consumer<List<Long>> onFired) {
+        Map<Integer, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Long id : taskIds) {
+            int shard = ShardRouter.shardOf(id);
+            if (shardRouter.isValidShard(shard)) {
+                idsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(id);
+            }
+        }
+
+        List<Long> fired = new ArrayList<>();
+        idsByShard.forEach((shard, ids) -> fired.addAll(shardRouter.onShard(shard, () ->
+                writeTransaction.execute(tx -> fireDueOnShard(ids, newStatus, onFired)))));
+        return fired;
+    }
+
+    private List<Long> fireDueOnShard(Collection<Long> taskIds, TaskStatus newStatus, Consumer<List<Long>> onFired) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = taskRepository.lockDueTasks(taskIds, now);
+        if (dueIds.isEmpty()) {
+            return dueIds;
+        }
+
+        if (newStatus != null) {
+            taskRepository.markDueFiredWithStatus(dueIds, newStatus, now);
+        } else {
+            taskRepository.markDueFired(dueIds, now);
+        }
+        onFired.accept(dueIds);
+        return dueIds;
+    }
+
+    /**
+     * One statement per shard involved, in its own transaction:
+     *
+     *   UPDATE tasks AS t
+     *   SET status = v.status, updated_at = v.queued_at, version = t.version + 1
+     *   FROM (VALUES (?, ?, ?, ?), ...) AS v(id, status, version, queued_at)
+     *   WHERE t.id = v.id AND t.version = v.version
+     *   RETURNING t.id
+     *
+     * The VALUES list has four parameters per change; callers keep batches
+     * well below PostgreSQL's limit of 65535 parameters per statement.
+     * Changes for tasks of unknown shards are skipped.
+     */
+    @Override
+    public List<StatusChange> applyStatusChanges(Collection<StatusChange> changes,
+                                                 Consumer<List<StatusChange>> onApplied) {
+        Map<Integer, Map<Long, StatusChange>> changesByShard = new LinkedHashMap<>();
+        for (StatusChange change : changes) {
+            int shard = ShardRouter.shardOf(change.id());
+            if (shardRouter.isValidShard(shard)) {
+                changesByShard.computeIfAbsent(shard, s -> new LinkedHashMap<>()).put(change.id(), change);
+            }
+        }
+
+        List<StatusChange> applied = new ArrayList<>();
+        changesByShard.forEach((shard, shardChanges) -> applied.addAll(shardRouter.onShard(shard, () ->
+                writeTransaction.execute(tx -> applyStatusChangesOnShard(shardChanges, onApplied)))));
+        return applied;
+    }
+
+    private List<StatusChange> applyStatusChangesOnShard(Map<Long, StatusChange> changes,
+                                                         Consumer<List<StatusChange>> onApplied) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE tasks AS t SET status = v.status, updated_at = v.queued_at, version = t.version + 1 " +
+                "FROM (VALUES ");
+        int parameter = 1;
+        for (int i = 0; i < changes.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            // Casts give the VALUES columns their types (the parameters are untyped)
+            sql.append("(CAST(?").append(parameter++).append(" AS bigint), ")
+               .append("CAST(?").append(parameter++).append(" AS varchar), ")
+               .append("CAST(?").append(parameter++).append(" AS bigint), ")
+               .append("CAST(?").append(parameter++).append(" AS timestamp))");
+        }
+        sql.append(") AS v(id, status, version, queued_at) ")
+           .append("WHERE t.id = v.id AND t.version = v.version RETURNING t.id");
+
+        Query update = entityManager.createNativeQuery(sql.toString(), Long.class);
+        parameter = 1;
+        for (StatusChange change : changes.values()) {
+            update.setParameter(parameter++, change.id());
+            update.setParameter(parameter++, change.status().name());
+            update.setParameter(parameter++, change.version());
+            update.setParameter(parameter++, change.queuedAt());
+        }
+
+        List<StatusChange> applied = new ArrayList<>();
+        for (Object id : update.getResultList()) {
+            applied.add(changes.get(((Number) id).longValue()));
+        }
+        if (!applied.isEmpty()) {
+            onApplied.accept(applied);
+        }
+        return applied;
+    }
+
+    /**
+     * One page (newest first) across all shards.
+     *
+     * Each shard returns its first (page + 1) * size rows, which together
+     * contain the requested page of the merged result. Deep pages get more
+     * expensive with several shards, so callers cap the offset (see
+     * TaskController.MAX_PAGE_OFFSET) and use keysetPage beyond it.
+     */
+    private List<Task> newestFirstPage(int page, int size, Function<Pageable, List<Task>> query) {
+        if (shardRouter.shardCount() == 1) {
+            return shardRouter.onShard(0, () -> readOnlyTransaction.execute(tx ->
+                    query.apply(PageRequest.of(page, size))));
+        }
+
+        long offset = (long) page * size;
+        Pageable top = PageRequest.of(0, Math.toIntExact(offset + size));
+        List<Task> merged = mergeNewestFirst(shardRouter.fanOut(shard ->
+                readOnlyTransaction.execute(tx -> query.apply(top))));
+        int from = (int) Math.min(offset, merged.size());
+        return new ArrayList<>(merged.subList(from, Math.min(from + size, merged.size())));
+    }
+
+    /**
+     * The first size tasks (newest first) of a query that continues after
+     * a given task (keyset pagination).
+     *
+     * Every shard returns only its first size rows after that task, and
+     * the merged page is the first size of those: the cost doesn't grow
+     * with the depth of the page.
+     */
+    private List<Task> keysetPage(int size, Function<Pageable, List<Task>> query) {
+        Pageable first = PageRequest.of(0, size);
+        List<Task> merged = mergeNewestFirst(shardRouter.fanOut(shard ->
+                readOnlyTransaction.execute(tx -> query.apply(first))));
+        return merged.size() > size ? new ArrayList<>(merged.subList(0, size)) : merged;
+    }
+
+    private static List<Task> mergeNewestFirst(List<List<Task>> shardResults) {
+        if (shardResults.size() == 1) {
+            return shardResults.get(0);
+        }
+        List<Task> merged = new ArrayList<>();
+        shardResults.forEach(merged::addAll);
+        merged.sort(NEWEST_FIRST);
+        return merged;
+    }
+
+    /**
+     * The status index, or null when it is disabled or still being built.
+     */
+    private TaskStatusIndex readyStatusIndex() {
+        TaskStatusIndex index = statusIndex.getIfAvailable();
+        return index != null && index.isReady() ? index : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.taskservice.store;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Where tasks are stored, beneath TaskService.
+ *
+ * Implementations (chosen with taskservice.storage.engine):
+ * - jpa (default): PostgreSQL through TaskRepository, see JpaTaskStore
+ * - journal: embedded in-memory store with a memory-mapped journal on
+ *   local disk, no database needed, see JournalTaskStore
+ *
+ * TaskService keeps the business rules (initial status, events, request
+ * coalescing); a store only reads and writes tasks.
+ *
+ * "Newest first" means by creation time, latest first. Where IDs are
+ * assigned in creation order (one database, journal), stores may order by
+ * ID instead; a store uses one order for all pages of a query.
+ * Read methods manage their own transactions (if any). save and delete
+ * join the caller's transaction when there is one.
+ *
+ * Tasks returned by list methods may be shared with other callers and
+ * must not be modified; use findById to get a task to change and save it.
+ */
+public interface TaskStore {
+
+    /**
+     * A task by ID, including archived (read-only) tasks.
+     */
+    Optional<Task> findById(Long id);
+
+    /**
+     * A task by ID that can be modified (not archived).
+     */
+    Optional<Task> findModifiable(Long id);
+
+    /**
+     * The version of a modifiable task, which every write increments;
+     * empty if there is no such task.
+     */
+    OptionalLong findVersion(Long id);
+
+    /**
+     * Insert a new task (null ID) or update an existing one.
+     * Sets the ID, timestamps and version.
+     *
+     * An update (or delete) of a task written since it was read fails with
+     * OptimisticLockingFailureException, possibly only when the caller's
+     * transaction commits.
+     */
+    Task save(Task task);
+
+    void delete(Task task);
+
+    List<Task> findAllNewestFirst();
+
+    List<Task> findAllNewestFirst(int page, int size);
+
+    /**
+     * The page after the given task (the last one of the previous page), in
+     * the order of findAllNewestFirst(page, size).
+     *
+     * Keyset pagination: the store seeks to the given position instead of
+     * skipping page * size tasks, so deep pages cost as much as the first.
+     * Stores ordering by ID ignore createdAt.
+     */
+    List<Task> findAllNewestFirstAfter(LocalDateTime createdAt, Long id, int size);
+
+    /**
+     * Pass every task, newest first, to the consumer without keeping them
+     * all in memory where the store can avoid it.
+     */
+    void forEachNewestFirst(Consumer<Task> consumer);
+
+    List<Task> findByStatus(TaskStatus status);
+
+    List<Task> findByStatusNewestFirst(TaskStatus status, int page, int size);
+
+    /**
+     * The page after the given task in the order of
+     * findByStatusNewestFirst (see findAllNewestFirstAfter).
+     */
+    List<Task> findByStatusNewestFirstAfter(TaskStatus status, LocalDateTime createdAt, Long id, int size);
+
+    /**
+     * Number of tasks per status (every status is present, possibly with 0).
+     */
+    Map<TaskStatus, Long> countByStatus();
+
+    /**
+     * Tasks whose title contains the query, ignoring case.
+     */
+    List<Task> searchByTitle(String query);
+
+    /**
+     * Tasks due by the given time, with one of the given statuses, whose
+     * overdue transition hasn't fired yet.
+     */
+    List<DueTask> findDueBefore(LocalDateTime until, Collection<TaskStatus> statuses);
+
+    /**
+     * Fire the overdue transition of the given tasks that are still due,
+     * not fired yet and PENDING or IN_PROGRESS.
+     *
+     * onFired receives the fired IDs once the change is durable but before
+     * any surrounding transaction completes, so events published from it
+     * reach @TransactionalEventListeners. It may be called more than once
+     * (e.g. once per shard).
+     *
+     * @param newStatus status to move the tasks to, or null to keep it
+     * @return IDs of all fired tasks
+     */
+    List<Long> fireDue(Collection<Long> taskIds, TaskStatus newStatus, Consumer<List<Long>> onFired);
+
+    /**
+     * Apply queued status changes in one batch (see TaskStatusWriteBehind).
+     *
+     * A change is skipped when its task no longer exists (or is archived)
+     * or its version differs from the one read when the change was queued
+     * (another write came in between), so a queued status never overwrites
+     * a newer write. Applied changes set updatedAt to their queuedAt and
+     * increment the version like any other write, so a write based on the
+     * task as read before (e.g. a PUT in progress) fails instead of
+     * overwriting the status. No clocks are compared, so this holds across
+     * replicas.
+     *
+     * onApplied receives the applied changes, like onFired in fireDue.
+     *
+     * @return the applied changes
+     */
+    List<StatusChange> applyStatusChanges(Collection<StatusChange> changes, Consumer<List<StatusChange>> onApplied);
+
+    /**
+     * ID and due date of a task (see findDueBefore).
+     * Also used as the Spring Data projection of TaskRepository.findDueTasks.
+     */
+    interface DueTask {
+        Long getId();
+
+        LocalDateTime getDueAt();
+    }
+
+    /**
+     * A status change queued at a given time for the given version of the
+     * task (see applyStatusChanges).
+     */
+    record StatusChange(Long id, TaskStatus status, long version, LocalDateTime queuedAt) {
+
+        public StatusChange withVersion(long version) {
+            return new StatusChange(id, status, version, queuedAt);
+        }
+    }
+}
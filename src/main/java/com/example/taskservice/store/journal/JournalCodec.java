@@ -0,0 +1,182 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary format of journal and snapshot records.
+ *
+ * Record: [int body length][int CRC32C of body][body]
+ * Body:
+ * - PUT:    [byte 1][long id][title][description][status][createdAt][updatedAt][dueAt][dueFiredAt]
+ * - DELETE: [byte 2][long id]
+ * Strings: [int UTF-8 length, -1 for null][bytes]
+ * Timestamps: [byte 0 for null] or [byte 1][long epoch second][int nano]
+ * (LocalDateTime has no zone; UTC is only used as a fixed encoding)
+ *
+ * A body length of 0 ends the log (unused, zero-filled journal space).
+ * The checksum detects records torn by a crash while being written.
+ *
+ * One instance per writer: encoding reuses a buffer and a CRC32C.
+ */
+final class JournalCodec {
+
+    static final int HEADER_BYTES = 8;
+    // Tasks are a few KB at most; anything larger is a corrupt length
+    static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    /**
+     * Encode a PUT record. The returned buffer is valid until the next call.
+     */
+    ByteBuffer encodePut(Task task) {
+        byte[] title = bytes(task.getTitle());
+        byte[] description = bytes(task.getDescription());
+        byte[] status = bytes(task.getStatus() != null ? task.getStatus().name() : null);
+
+        int maxBody = 1 + 8 + 3 * 4 + length(title) + length(description) + length(status) + 4 * 13;
+        start(maxBody);
+        buffer.put(PUT);
+        buffer.putLong(task.getId());
+        putBytes(title);
+        putBytes(description);
+        putBytes(status);
+        putTimestamp(task.getCreatedAt());
+        putTimestamp(task.getUpdatedAt());
+        putTimestamp(task.getDueAt());
+        putTimestamp(task.getDueFiredAt());
+        return finish();
+    }
+
+    /**
+     * Encode a DELETE record. The returned buffer is valid until the next call.
+     */
+    ByteBuffer encodeDelete(long id) {
+        start(1 + 8);
+        buffer.put(DELETE);
+        buffer.putLong(id);
+        return finish();
+    }
+
+    /**
+     * Checksum of a record body as stored in the header.
+     */
+    static int checksum(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Decode a record body (checksum already verified).
+     */
+    static void decode(byte[] body, Consumer<Task> onPut, LongConsumer onDelete) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(body);
+            byte type = in.get();
+            long id = in.getLong();
+            if (type == DELETE) {
+                onDelete.accept(id);
+                return;
+            }
+            if (type != PUT) {
+                throw new IOException("Unknown journal record type " + type);
+            }
+
+            Task task = new Task();
+            task.setId(id);
+            task.setTitle(getString(in));
+            task.setDescription(getString(in));
+            String status = getString(in);
+            task.setStatus(status != null ? TaskStatus.valueOf(status) : null);
+            task.setCreatedAt(getTimestamp(in));
+            task.setUpdatedAt(getTimestamp(in));
+            task.setDueAt(getTimestamp(in));
+            task.setDueFiredAt(getTimestamp(in));
+            onPut.accept(task);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException | DateTimeException e) {
+            throw new IOException("Malformed journal record", e);
+        }
+    }
+
+    private void start(int maxBody) {
+        if (buffer.capacity() < HEADER_BYTES + maxBody) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(HEADER_BYTES + maxBody) << 1);
+        }
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+    }
+
+    private ByteBuffer finish() {
+        int bodyLength = buffer.position() - HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private void putBytes(byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private void putTimestamp(LocalDateTime value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(value.getNano());
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        long epochSecond = in.getLong();
+        int nano = in.getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+}
@@ -0,0 +1,549 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.exception.TaskNotFoundException;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.sharding.ShardRouter;
+import com.example.taskservice.store.TaskStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Embedded TaskStore: all tasks in memory, changes in a memory-mapped
+ * journal on local disk (see TaskJournal). No database needed, e.g. for
+ * edge deployments and fast integration tests.
+ *
+ * Enabled with taskservice.storage.engine=journal (the "journal" profile
+ * also switches off the DataSource/JPA/Flyway auto-configuration).
+ *
+ * In memory:
+ * - tasks: ID -> Task in a LongObjectMap (primitive keys, no boxing)
+ * - allIds and one bitmap per status: task IDs in compressed (Roaring)
+ *   bitmaps, as in TaskStatusIndex. IDs are assigned in creation order
+ *   under the write lock, so iterating a bitmap from the highest ID is
+ *   "newest first", and counts per status are the bitmap cardinalities.
+ * Title search and due-date queries scan all tasks.
+ *
+ * Writes are appended to the journal first and applied in memory after,
+ * both under the write lock. Stored Task instances are never modified
+ * (a changed task replaces the previous instance), so readers may use
+ * them after releasing the read lock; single-task reads return a copy
+ * that the caller may change and save.
+ *
+ * Task versions (see TaskStore.findVersion) are only kept in memory and
+ * start at 0 after a restart; queued status changes don't outlive the
+ * process either.
+ *
+ * Snapshots: every taskservice.storage.journal.snapshot-interval (if
+ * anything changed), all tasks are written to a snapshot and older
+ * journal files are deleted, which bounds recovery time and disk usage.
+ *
+ * Limitations:
+ * - One process per journal directory (no replicas, no sharding)
+ * - No archive: archived tasks only exist in PostgreSQL
+ * - The whole data set must fit in the heap
+ */
+@Component
+@ConditionalOnProperty(name = "taskservice.storage.engine", havingValue = "journal")
+public class JournalTaskStore implements TaskStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalTaskStore.class);
+
+    // Statuses a task can still expire from (see fireDue)
+    private static final Set<TaskStatus> EXPIRABLE_STATUSES = EnumSet.of(TaskStatus.PENDING, TaskStatus.IN_PROGRESS);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectMap<Task> tasks = new LongObjectMap<>(1024);
+    private final Roaring64Bitmap allIds = new Roaring64Bitmap();
+    private final Map<TaskStatus, Roaring64Bitmap> idsByStatus = new EnumMap<>(TaskStatus.class);
+    private final TaskJournal journal;
+    private final Timer snapshotTimer;
+
+    private long lastId;
+    private long changesSinceSnapshot;
+    private boolean closed;
+
+    public JournalTaskStore(ShardRouter shardRouter,
+                            MeterRegistry meterRegistry,
+                            @Value("${taskservice.storage.journal.dir:data/journal}") Path directory,
+                            @Value("${taskservice.storage.journal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${taskservice.storage.journal.sync-every-write:true}") boolean syncEveryWrite)
+            throws IOException {
+        if (shardRouter.isSharded()) {
+            throw new IllegalStateException("The journal storage engine does not support taskservice.sharding");
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            idsByStatus.put(status, new Roaring64Bitmap());
+        }
+
+        long start = System.nanoTime();
+        this.journal = TaskJournal.open(directory, (int) segmentSize.toBytes(), syncEveryWrite,
+                this::applyPut, this::applyDelete);
+        allIds.runOptimize();
+        idsByStatus.values().forEach(Roaring64Bitmap::runOptimize);
+        log.info("Task journal {} recovered in {} ms: {} tasks",
+                directory.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000, tasks.size());
+
+        Gauge.builder("taskservice.storage.journal.tasks", this, JournalTaskStore::taskCount)
+                .description("Number of tasks in the journal store")
+                .register(meterRegistry);
+        Gauge.builder("taskservice.storage.journal.bytes", this, JournalTaskStore::journalBytes)
+                .description("Size of the current journal file (since the last roll)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("taskservice.storage.journal.snapshot")
+                .description("Time to write a snapshot of all tasks")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return read(() -> Optional.ofNullable(tasks.get(id)).map(JournalTaskStore::copyOf));
+    }
+
+    @Override
+    public Optional<Task> findModifiable(Long id) {
+        return findById(id);
+    }
+
+    @Override
+    public OptionalLong findVersion(Long id) {
+        return read(() -> {
+            Task task = tasks.get(id);
+            return task != null ? OptionalLong.of(task.getVersion()) : OptionalLong.empty();
+        });
+    }
+
+    /**
+     * New tasks get the next ID and createdAt; updatedAt and the version
+     * are always set (like the JPA lifecycle callbacks on Task).
+     * Updates and deletes fail with OptimisticLockingFailureException if
+     * the task was written since it was read (like the JPA @Version).
+     */
+    @Override
+    public Task save(Task task) {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Task existing = null;
+            if (task.getId() == null) {
+                task.setId(lastId + 1);
+            } else {
+                existing = tasks.get(task.getId());
+                if (existing == null) {
+                    // Deleted since it was read
+                    throw new TaskNotFoundException(task.getId());
+                }
+                if (existing.getVersion() != task.getVersion()) {
+                    // Written since it was read (like a JPA @Version check)
+                    throw new OptimisticLockingFailureException("Task " + task.getId() + " was changed concurrently");
+                }
+            }
+            task.setCreatedAt(existing != null ? existing.getCreatedAt() : now);
+            task.setUpdatedAt(now);
+            task.setVersion(existing != null ? existing.getVersion() + 1 : 0);
+
+            Task stored = copyOf(task);
+            append(() -> journal.appendPut(stored));
+            applyPut(stored);
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Task task) {
+        lock.writeLock().lock();
+        try {
+            Task existing = tasks.get(task.getId());
+            if (existing != null) {
+                if (existing.getVersion() != task.getVersion()) {
+                    throw new OptimisticLockingFailureException("Task " + task.getId() + " was changed concurrently");
+                }
+                append(() -> journal.appendDelete(task.getId()));
+                applyDelete(task.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findAllNewestFirst() {
+        return read(() -> newestFirst(allIds, 0, Integer.MAX_VALUE, null));
+    }
+
+    @Override
+    public List<Task> findAllNewestFirst(int page, int size) {
+        return read(() -> newestFirst(allIds, (long) page * size, size, null));
+    }
+
+    @Override
+    public List<Task> findAllNewestFirstAfter(LocalDateTime createdAt, Long id, int size) {
+        return read(() -> newestFirstBefore(allIds, id, size));
+    }
+
+    /**
+     * Collects the (shared, unmodified) task instances under the read lock,
+     * then passes them to the consumer without holding it, so a slow
+     * client doesn't block writers.
+     */
+    @Override
+    public void forEachNewestFirst(Consumer<Task> consumer) {
+        findAllNewestFirst().forEach(consumer);
+    }
+
+    @Override
+    public List<Task> findByStatus(TaskStatus status) {
+        return read(() -> newestFirst(idsByStatus.get(status), 0, Integer.MAX_VALUE, null));
+    }
+
+    @Override
+    public List<Task> findByStatusNewestFirst(TaskStatus status, int page, int size) {
+        return read(() -> newestFirst(idsByStatus.get(status), (long) page * size, size, null));
+    }
+
+    @Override
+    public List<Task> findByStatusNewestFirstAfter(TaskStatus status, LocalDateTime createdAt, Long id, int size) {
+        return read(() -> newestFirstBefore(idsByStatus.get(status), id, size));
+    }
+
+    @Override
+    public Map<TaskStatus, Long> countByStatus() {
+        return read(() -> {
+            Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+            idsByStatus.forEach((status, ids) -> counts.put(status, ids.getLongCardinality()));
+            return counts;
+        });
+    }
+
+    @Override
+    public List<Task> searchByTitle(String query) {
+        return read(() -> newestFirst(allIds, 0, Integer.MAX_VALUE,
+                task -> containsIgnoreCase(task.getTitle(), query)));
+    }
+
+    @Override
+    public List<DueTask> findDueBefore(LocalDateTime until, Collection<TaskStatus> statuses) {
+        return read(() -> {
+            List<DueTask> dueTasks = new ArrayList<>();
+            tasks.forEachValue(task -> {
+                if (task.getDueAt() != null && !task.getDueAt().isAfter(until)
+                        && task.getDueFiredAt() == null && statuses.contains(task.getStatus())) {
+                    dueTasks.add(new JournalDueTask(task.getId(), task.getDueAt()));
+                }
+            });
+            return dueTasks;
+        });
+    }
+
+    /**
+     * onFired is called after the changes are journaled and the write lock
+     * is released (there is no transaction to wait for).
+     */
+    @Override
+    public List<Long> fireDue(Collection<Long> taskIds, TaskStatus newStatus, Consumer<List<Long>> onFired) {
+        List<Long> fired = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (Long id : taskIds) {
+                Task task = tasks.get(id);
+                if (task == null || task.getDueAt() == null || task.getDueAt().isAfter(now)
+                        || task.getDueFiredAt() != null || !EXPIRABLE_STATUSES.contains(task.getStatus())) {
+                    continue;
+                }
+
+                Task changed = copyOf(task);
+                changed.setDueFiredAt(now);
+                changed.setUpdatedAt(now);
+                changed.setVersion(task.getVersion() + 1);
+                if (newStatus != null) {
+                    changed.setStatus(newStatus);
+                }
+                append(() -> journal.appendPut(changed));
+                applyPut(changed);
+                fired.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!fired.isEmpty()) {
+            onFired.accept(fired);
+        }
+        return fired;
+    }
+
+    /**
+     * Like fireDue: onApplied is called after the write lock is released.
+     */
+    @Override
+    public List<StatusChange> applyStatusChanges(Collection<StatusChange> changes,
+                                                 Consumer<List<StatusChange>> onApplied) {
+        List<StatusChange> applied = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (StatusChange change : changes) {
+                Task task = tasks.get(change.id());
+                if (task == null || task.getVersion() != change.version()) {
+                    continue;
+                }
+
+                Task changed = copyOf(task);
+                changed.setStatus(change.status());
+                changed.setUpdatedAt(change.queuedAt());
+                changed.setVersion(task.getVersion() + 1);
+                append(() -> journal.appendPut(changed));
+                applyPut(changed);
+                applied.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!applied.isEmpty()) {
+            onApplied.accept(applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Write a snapshot of all tasks and drop older journal files.
+     *
+     * Only the switch to a new journal file and collecting the task
+     * references happen under the write lock; the snapshot itself is
+     * written while reads and writes continue.
+     */
+    @Scheduled(fixedDelayString = "${taskservice.storage.journal.snapshot-interval:PT5M}",
+               initialDelayString = "${taskservice.storage.journal.snapshot-interval:PT5M}")
+    public synchronized void snapshot() {
+        long generation;
+        long lastIdAtRoll;
+        List<Task> state;
+        lock.writeLock().lock();
+        try {
+            if (closed || changesSinceSnapshot == 0) {
+                return;
+            }
+            generation = journal.roll();
+            lastIdAtRoll = lastId;
+            state = new ArrayList<>(tasks.size());
+            tasks.forEachValue(state::add);
+            changesSinceSnapshot = 0;
+        } catch (IOException e) {
+            log.error("Could not start a new journal file for a snapshot", e);
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            journal.writeSnapshot(generation, state, lastIdAtRoll);
+            snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Task journal snapshot {} written in {} ms: {} tasks",
+                    generation, (System.nanoTime() - start) / 1_000_000, state.size());
+        } catch (IOException e) {
+            // Nothing is lost: the older snapshot and journals are still there
+            log.error("Could not write task journal snapshot {}", generation, e);
+            lock.writeLock().lock();
+            try {
+                changesSinceSnapshot++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            journal.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called while holding the write lock (or during recovery).
+     */
+    private void applyPut(Task task) {
+        long id = task.getId();
+        Task previous = tasks.put(id, task);
+        if (previous != null && previous.getStatus() != null) {
+            idsByStatus.get(previous.getStatus()).removeLong(id);
+        }
+        allIds.addLong(id);
+        if (task.getStatus() != null) {
+            idsByStatus.get(task.getStatus()).addLong(id);
+        }
+        lastId = Math.max(lastId, id);
+        changesSinceSnapshot++;
+    }
+
+    /**
+     * Must be called while holding the write lock (or during recovery).
+     */
+    private void applyDelete(long id) {
+        // Also seen for the highest ID at the start of a snapshot (see TaskJournal)
+        lastId = Math.max(lastId, id);
+        Task previous = tasks.remove(id);
+        if (previous != null) {
+            allIds.removeLong(id);
+            if (previous.getStatus() != null) {
+                idsByStatus.get(previous.getStatus()).removeLong(id);
+            }
+        }
+        changesSinceSnapshot++;
+    }
+
+    /**
+     * Up to limit tasks matching the filter (null for all), highest ID
+     * first, after skipping the first skip matches. Must hold the read lock.
+     */
+    private List<Task> newestFirst(Roaring64Bitmap ids, long skip, int limit, Predicate<Task> filter) {
+        List<Task> result = filter == null
+                ? new ArrayList<>((int) Math.min(limit, Math.max(0, ids.getLongCardinality() - skip)))
+                : new ArrayList<>();
+        LongIterator iterator = ids.getReverseLongIterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            Task task = tasks.get(iterator.next());
+            if (task != null && (filter == null || filter.test(task))) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result.add(task);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Up to limit tasks with an ID below beforeId, highest ID first; the
+     * iterator starts right there instead of skipping the higher IDs.
+     * Must hold the read lock.
+     */
+    private List<Task> newestFirstBefore(Roaring64Bitmap ids, long beforeId, int limit) {
+        List<Task> result = new ArrayList<>();
+        if (beforeId <= 0) {
+            return result;
+        }
+        LongIterator iterator = ids.getReverseLongIteratorFrom(beforeId - 1);
+        while (iterator.hasNext() && result.size() < limit) {
+            long id = iterator.next();
+            // The iterator may start above beforeId - 1 when that value isn't in the bitmap
+            Task task = id < beforeId ? tasks.get(id) : null;
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private long taskCount() {
+        return read(tasks::size);
+    }
+
+    private long journalBytes() {
+        return read(journal::size);
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void append(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the task journal", e);
+        }
+    }
+
+    /**
+     * Case-insensitive "contains" without allocating lower-case copies.
+     */
+    private static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) {
+            return false;
+        }
+        int last = text.length() - query.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Task copyOf(Task task) {
+        Task copy = new Task(task.getTitle(), task.getDescription());
+        copy.setId(task.getId());
+        copy.setStatus(task.getStatus());
+        copy.setCreatedAt(task.getCreatedAt());
+        copy.setUpdatedAt(task.getUpdatedAt());
+        copy.setDueAt(task.getDueAt());
+        copy.setDueFiredAt(task.getDueFiredAt());
+        copy.setVersion(task.getVersion());
+        return copy;
+    }
+
+    @FunctionalInterface
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    private record JournalDueTask(Long id, LocalDateTime dueAt) implements DueTask {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDateTime getDueAt() {
+            return dueAt;
+        }
+    }
+}
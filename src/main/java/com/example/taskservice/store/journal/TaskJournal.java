@@ -0,0 +1,412 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped journal of task changes, plus snapshots.
+ *
+ * Files in the journal directory, by generation number N:
+ * - journal-N.log: changes made while generation N was current. Written
+ *   through a MappedByteBuffer (no system call per append); the file is
+ *   mapped one segment at a time, zero-filled beyond the last record
+ * - snapshot-N.dat: every task as of the start of journal-N (written to a
+ *   .tmp file, fsynced and renamed, so it is either complete or absent)
+ *
+ * Recovery: load the newest snapshot N (if any), then replay journal-N
+ * and every later journal in order. A journal ends at the first zeroed
+ * record, which is where appending continues. Only the newest journal may
+ * end with a torn record (an append interrupted by a crash: checksum
+ * mismatch or cut short, with nothing but zeros after it); it is discarded.
+ * Any other bad record means the files are damaged, and open fails rather
+ * than drop the records after it.
+ *
+ * Generations advance when a segment is full (roll) and when a snapshot is
+ * taken (roll, then write the snapshot for the new generation). Files of
+ * older generations are deleted once a newer snapshot exists.
+ *
+ * Durability: an appended record is in the page cache right away, so it
+ * survives a crash of the process. With sync-every-write it is also
+ * forced to disk before the write returns (survives power loss).
+ *
+ * Not thread-safe: appends, roll and close are called under the write
+ * lock of JournalTaskStore; writeSnapshot only touches snapshot files
+ * and older generations and may run concurrently with appends.
+ */
+final class TaskJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskJournal.class);
+
+    private static final Pattern JOURNAL_FILE = Pattern.compile("^journal-(\\d+)\\.log$");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("^snapshot-(\\d+)\\.dat$");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncEveryWrite;
+    private final JournalCodec codec = new JournalCodec();
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int position;
+
+    private TaskJournal(Path directory, int segmentSize, boolean syncEveryWrite) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncEveryWrite = syncEveryWrite;
+    }
+
+    /**
+     * Recover the tasks stored in the directory (created if missing) and
+     * open the journal for appending.
+     *
+     * @param onPut    called for every stored task version, in order
+     * @param onDelete called for every deleted task ID, in order
+     */
+    static TaskJournal open(Path directory, int segmentSize, boolean syncEveryWrite,
+                            Consumer<Task> onPut, LongConsumer onDelete) throws IOException {
+        Files.createDirectories(directory);
+        deleteUnfinishedSnapshots(directory);
+
+        List<Long> snapshots = generations(directory, SNAPSHOT_FILE);
+        long base = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (!snapshots.isEmpty()) {
+            read(snapshotFile(directory, base), true, onPut, onDelete);
+        }
+
+        List<Long> journals = generations(directory, JOURNAL_FILE);
+        journals.removeIf(journal -> journal < base);
+
+        long current = base;
+        ReadResult last = new ReadResult(0, false);
+        for (int i = 0; i < journals.size(); i++) {
+            // Older journals were forced to disk before the next one was
+            // started, so only the newest one can end with a torn record
+            boolean newest = i == journals.size() - 1;
+            last = read(journalFile(directory, journals.get(i)), !newest, onPut, onDelete);
+            current = journals.get(i);
+        }
+
+        TaskJournal taskJournal = new TaskJournal(directory, segmentSize, syncEveryWrite);
+        taskJournal.generation = current;
+        taskJournal.openSegment(last.validBytes(), 0, last.torn());
+        taskJournal.deleteBefore(base);
+        return taskJournal;
+    }
+
+    /**
+     * Append the current version of a task.
+     */
+    void appendPut(Task task) throws IOException {
+        append(codec.encodePut(task));
+    }
+
+    /**
+     * Append the deletion of a task.
+     */
+    void appendDelete(long id) throws IOException {
+        append(codec.encodeDelete(id));
+    }
+
+    /**
+     * Start the next generation: later appends go to a new journal file.
+     *
+     * @return the new generation; a snapshot for it must contain every
+     *         change appended before this call
+     */
+    long roll() throws IOException {
+        closeSegment();
+        generation++;
+        openSegment(0, 0, false);
+        return generation;
+    }
+
+    /**
+     * Write the snapshot of a generation (see roll) and delete the files of
+     * older generations.
+     *
+     * The snapshot starts with a DELETE of lastId (the highest ID assigned
+     * so far): it removes nothing, but recovery sees the ID and doesn't
+     * hand out IDs of deleted tasks again.
+     */
+    void writeSnapshot(long snapshotGeneration, Collection<Task> tasks, long lastId) throws IOException {
+        Path target = snapshotFile(directory, snapshotGeneration);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        JournalCodec snapshotCodec = new JournalCodec();
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(file), 1 << 20);
+            ByteBuffer marker = snapshotCodec.encodeDelete(lastId);
+            out.write(marker.array(), 0, marker.limit());
+            for (Task task : tasks) {
+                ByteBuffer record = snapshotCodec.encodePut(task);
+                out.write(record.array(), 0, record.limit());
+            }
+            out.flush();
+            file.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        deleteBefore(snapshotGeneration);
+    }
+
+    /**
+     * Bytes appended to the current journal file.
+     */
+    long size() {
+        return position;
+    }
+
+    /**
+     * Force appended records to disk.
+     */
+    void sync() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if (segment == null) {
+            throw new IOException("Journal is closed");
+        }
+        if (position + length > segment.capacity()) {
+            // Segment full: continue in a new journal file (a record never spans files)
+            closeSegment();
+            generation++;
+            openSegment(0, length, false);
+        }
+
+        segment.put(position, record, 0, length);
+        if (syncEveryWrite) {
+            segment.force(position, length);
+        }
+        position += length;
+    }
+
+    /**
+     * Map the current generation's journal file for appending at start.
+     *
+     * @param minFree space needed for the next record
+     * @param wipe    true after a torn record: zero the rest of the file so
+     *                no stale bytes after it can be replayed after records
+     *                appended from here
+     */
+    private void openSegment(int start, int minFree, boolean wipe) throws IOException {
+        Path file = journalFile(directory, generation);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long existing = channel.size();
+        long capacity = Math.max(Math.max(segmentSize, (long) start + minFree), existing);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        position = start;
+
+        if (wipe) {
+            byte[] zeros = new byte[64 * 1024];
+            for (int i = start; i < existing; i += zeros.length) {
+                segment.put(i, zeros, 0, (int) Math.min(zeros.length, existing - i));
+            }
+            segment.force();
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void deleteBefore(long keepFrom) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long fileGeneration = generationOf(file, JOURNAL_FILE);
+                if (fileGeneration < 0) {
+                    fileGeneration = generationOf(file, SNAPSHOT_FILE);
+                }
+                if (fileGeneration >= 0 && fileGeneration < keepFrom) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            // Old files are ignored by recovery; they're deleted next time
+            log.warn("Could not delete old journal files in {}", directory, e);
+        }
+    }
+
+    /**
+     * Remove snapshots whose writing was interrupted (never renamed).
+     */
+    private static void deleteUnfinishedSnapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replay the records of a file.
+     *
+     * @param strict true for snapshots and older journals (must be intact),
+     *               false for the newest journal (may end with a torn record)
+     * @return the number of bytes of intact records, and whether a torn
+     *         record followed them
+     * @throws IOException if a record is damaged and isn't a torn tail
+     */
+    private static ReadResult read(Path file, boolean strict, Consumer<Task> onPut, LongConsumer onDelete)
+            throws IOException {
+        long valid = 0;
+        boolean torn = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    break;
+                }
+                if (length == 0) {
+                    // End of the journal: only zeros may follow
+                    checkNothingAfter(file, valid, valid + Integer.BYTES, "end of the records");
+                    break;
+                }
+
+                if (length < 0 || length > JournalCodec.MAX_BODY_BYTES) {
+                    // A partly written length is never out of range, so this isn't a torn append
+                    throw corrupt(file, valid, "invalid record length " + length);
+                }
+
+                String problem = null;
+                int checksum;
+                byte[] body;
+                try {
+                    checksum = in.readInt();
+                    body = in.readNBytes(length);
+                } catch (EOFException end) {
+                    checksum = 0;
+                    body = new byte[0];
+                }
+                if (body.length < length) {
+                    problem = "truncated record";
+                } else if (JournalCodec.checksum(body) != checksum) {
+                    problem = "checksum mismatch";
+                } else {
+                    JournalCodec.decode(body, onPut, onDelete);
+                }
+
+                if (problem != null) {
+                    if (strict) {
+                        throw corrupt(file, valid, problem);
+                    }
+                    // A torn append is the last thing written: nothing after it
+                    checkNothingAfter(file, valid, valid + JournalCodec.HEADER_BYTES + length, problem);
+                    log.warn("Journal {} ends with a torn record at byte {} ({}); it is discarded",
+                            file, valid, problem);
+                    torn = true;
+                    break;
+                }
+                valid += JournalCodec.HEADER_BYTES + length;
+            }
+        }
+        if (valid > Integer.MAX_VALUE) {
+            throw new IOException("Journal file too large: " + file);
+        }
+        return new ReadResult((int) valid, torn);
+    }
+
+    /**
+     * Fail if the file has a non-zero byte at or after from, i.e. more
+     * records after a damaged record or the end of the records at offset.
+     */
+    private static void checkNothingAfter(Path file, long offset, long from, String problem) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long position = from;
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() != 0) {
+                        throw corrupt(file, offset, problem + ", but data follows at byte "
+                                + (position + buffer.position() - 1));
+                    }
+                }
+                position += buffer.limit();
+                buffer.clear();
+            }
+        }
+    }
+
+    private static IOException corrupt(Path file, long offset, String problem) {
+        return new IOException("Corrupt journal file " + file + " at byte " + offset + ": " + problem
+                + ". Refusing to start: the records after it would be lost. Restore the directory"
+                + " from a backup, or truncate the file at byte " + offset + " to drop them.");
+    }
+
+    private static List<Long> generations(Path directory, Pattern pattern) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                long generation = generationOf(file, pattern);
+                if (generation >= 0) {
+                    generations.add(generation);
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private static long generationOf(Path file, Pattern pattern) {
+        Matcher matcher = pattern.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private record ReadResult(int validBytes, boolean torn) {
+    }
+
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve(String.format("journal-%010d.log", generation));
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve(String.format("snapshot-%010d.dat", generation));
+    }
+}
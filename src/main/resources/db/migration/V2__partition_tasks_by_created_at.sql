@@ -0,0 +1,104 @@
+-- =============================================================================
+-- V2: Partition Tasks Table by created_at
+-- =============================================================================
+-- Converts tasks into a RANGE-partitioned table with one partition per month
+-- (tasks_pYYYYMM), and adds tasks_archive for old partitions.
+--
+-- Partition lifecycle (see TaskPartitionManager):
+--   1. Partitions are created a few months ahead of time
+--   2. Old partitions without PENDING/IN_PROGRESS tasks are detached from
+--      tasks and attached to tasks_archive
+--
+-- Queries on tasks therefore only touch recent partitions; tasks_archive is
+-- only read when a lookup by ID misses.
+--
+-- NOTE: later migrations that add columns to tasks must add them to
+-- tasks_archive too, otherwise partitions can no longer be attached to it.
+-- =============================================================================
+
+-- Keep the old table until its rows are copied
+ALTER TABLE tasks RENAME TO tasks_unpartitioned;
+ALTER TABLE tasks_unpartitioned RENAME CONSTRAINT tasks_pkey TO tasks_unpartitioned_pkey;
+DROP INDEX idx_tasks_status;
+DROP INDEX idx_tasks_created_at;
+
+CREATE TABLE tasks (
+    -- Keeps using the sequence created by V1's BIGSERIAL
+    id BIGINT NOT NULL DEFAULT nextval('tasks_id_seq'),
+
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING',
+
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- The partition key must be part of the primary key.
+    -- id stays the leading column, so lookups by id use each partition's PK index.
+    CONSTRAINT tasks_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT chk_status CHECK (status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED'))
+) PARTITION BY RANGE (created_at);
+
+-- Move sequence ownership so dropping the old table keeps the sequence
+ALTER SEQUENCE tasks_id_seq OWNED BY tasks.id;
+
+-- Indexes on the parent are created on every partition automatically
+CREATE INDEX idx_tasks_status ON tasks(status);
+CREATE INDEX idx_tasks_created_at ON tasks(created_at DESC);
+
+-- =============================================================================
+-- Archive table (holds detached partitions, read-only)
+-- =============================================================================
+CREATE TABLE tasks_archive (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    CONSTRAINT tasks_archive_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- =============================================================================
+-- Helper: create the monthly partition containing the given date
+-- =============================================================================
+CREATE OR REPLACE FUNCTION create_tasks_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', month_start)::date;
+    partition_name TEXT := 'tasks_p' || to_char(partition_start, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, (partition_start + INTERVAL '1 month')::date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions from the oldest existing task up to 3 months ahead
+DO $$
+DECLARE
+    partition_month DATE := date_trunc('month', COALESCE((SELECT min(created_at) FROM tasks_unpartitioned), now()))::date;
+BEGIN
+    WHILE partition_month <= date_trunc('month', now() + INTERVAL '3 months') LOOP
+        PERFORM create_tasks_partition(partition_month);
+        partition_month := (partition_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Copy existing rows and drop the old table
+INSERT INTO tasks (id, title, description, status, created_at, updated_at)
+SELECT id, title, description, status, created_at, updated_at
+FROM tasks_unpartitioned;
+
+DROP TABLE tasks_unpartitioned;
+
+-- =============================================================================
+-- Comments for documentation
+-- =============================================================================
+COMMENT ON TABLE tasks IS 'Stores task/todo items (partitioned by month of created_at)';
+COMMENT ON TABLE tasks_archive IS 'Archived monthly partitions of tasks (read-only)';
+COMMENT ON COLUMN tasks.id IS 'Unique identifier for the task';
+COMMENT ON COLUMN tasks.title IS 'Task title/name';
+COMMENT ON COLUMN tasks.description IS 'Optional detailed description';
+COMMENT ON COLUMN tasks.status IS 'Current status: PENDING, IN_PROGRESS, COMPLETED, CANCELLED';
+COMMENT ON COLUMN tasks.created_at IS 'When the task was created (partition key)';
+COMMENT ON COLUMN tasks.updated_at IS 'When the task was last modified';
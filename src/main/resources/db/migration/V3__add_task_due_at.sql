@@ -0,0 +1,23 @@
+-- =============================================================================
+-- V3: Add Due Dates to Tasks
+-- =============================================================================
+-- due_at:       When the task is due (optional)
+-- due_fired_at: When the overdue transition/event fired (NULL = not yet).
+--               Makes sure each expiry fires exactly once across replicas.
+--
+-- Columns are added to tasks_archive as well so partitions can still be
+-- moved into it (see V2).
+-- =============================================================================
+
+ALTER TABLE tasks ADD COLUMN due_at TIMESTAMP;
+ALTER TABLE tasks ADD COLUMN due_fired_at TIMESTAMP;
+
+ALTER TABLE tasks_archive ADD COLUMN due_at TIMESTAMP;
+ALTER TABLE tasks_archive ADD COLUMN due_fired_at TIMESTAMP;
+
+-- Only tasks that can still expire are indexed (keeps the index tiny)
+CREATE INDEX idx_tasks_due_at ON tasks(due_at)
+    WHERE due_fired_at IS NULL AND status IN ('PENDING', 'IN_PROGRESS');
+
+COMMENT ON COLUMN tasks.due_at IS 'When the task is due (optional)';
+COMMENT ON COLUMN tasks.due_fired_at IS 'When the task''s overdue transition fired';
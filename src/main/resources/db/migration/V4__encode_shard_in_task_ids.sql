@@ -0,0 +1,16 @@
+-- =============================================================================
+-- V4: Encode the Shard in Task IDs
+-- =============================================================================
+-- New task IDs are (shard index << 48) + the database's own sequence value,
+-- so the shard of any task can be derived from its ID (see ShardRouter).
+--
+-- ${shardIndex} is a Flyway placeholder:
+-- - 0 without sharding (spring.flyway.placeholders.shardIndex), so IDs are
+--   unchanged for a single database
+-- - the shard's position in taskservice.sharding.shards with sharding
+--   (set per database by FlywayConfig)
+--
+-- Existing IDs are below 2^48 and therefore belong to shard 0.
+-- =============================================================================
+
+ALTER TABLE tasks ALTER COLUMN id SET DEFAULT ((${shardIndex}::BIGINT << 48) + nextval('tasks_id_seq'));
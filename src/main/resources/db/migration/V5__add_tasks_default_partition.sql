@@ -0,0 +1,46 @@
+-- =============================================================================
+-- V5: Default Partition for Tasks
+-- =============================================================================
+-- Without it, inserting a task fails when its month has no partition yet
+-- (partition maintenance lapsed, or taskservice.partitioning.enabled=false).
+-- Such rows now land in tasks_default instead.
+--
+-- create_tasks_partition moves rows of its month out of tasks_default
+-- (a partition can't be created while the default partition holds rows
+-- of its range). TaskPartitionManager calls it for every month found in
+-- tasks_default, so the default partition is normally empty.
+-- =============================================================================
+
+CREATE TABLE tasks_default PARTITION OF tasks DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_tasks_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', month_start)::date;
+    partition_end DATE := (partition_start + INTERVAL '1 month')::date;
+    partition_name TEXT := 'tasks_p' || to_char(partition_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM tasks_default
+               WHERE created_at >= partition_start AND created_at < partition_end) THEN
+        -- Detach the default partition, create the month, move its rows over
+        -- (one transaction; tasks is locked meanwhile, so this should be rare)
+        ALTER TABLE tasks DETACH PARTITION tasks_default;
+        EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, partition_start, partition_end);
+        INSERT INTO tasks SELECT * FROM tasks_default
+        WHERE created_at >= partition_start AND created_at < partition_end;
+        DELETE FROM tasks_default
+        WHERE created_at >= partition_start AND created_at < partition_end;
+        ALTER TABLE tasks ATTACH PARTITION tasks_default DEFAULT;
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, partition_start, partition_end);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMENT ON TABLE tasks_default IS 'Tasks whose month has no partition yet (moved out by create_tasks_partition)';
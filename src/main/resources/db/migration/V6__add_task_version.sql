@@ -0,0 +1,24 @@
+-- =============================================================================
+-- V6: Write Version of Tasks
+-- =============================================================================
+-- version: incremented by every write of a task, including status changes
+--          applied by the write-behind (see TaskStatusWriteBehind).
+--
+-- A queued status change carries the version read when it was queued and
+-- is only applied if the version is unchanged, i.e. no other write (from
+-- any replica) came in between. Unlike comparing updated_at, this doesn't
+-- depend on the clocks of the replicas agreeing.
+--
+-- It is also the JPA @Version of Task: an update of a task that was
+-- written since it was read (e.g. a PUT while a flush applies a queued
+-- status) fails with 409 Conflict instead of overwriting that write.
+--
+-- Added to tasks_archive as well so partitions can still be moved into it
+-- (see V2). A constant default doesn't rewrite the table.
+-- =============================================================================
+
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE tasks_archive ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN tasks.version IS 'Incremented by every write (optimistic locking)';
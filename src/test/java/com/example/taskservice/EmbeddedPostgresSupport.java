@@ -0,0 +1,92 @@
+package com.example.taskservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One embedded PostgreSQL server for all integration tests of a test run
+ * (started on first use, stopped when the JVM exits).
+ *
+ * Usage in a @SpringBootTest:
+ *
+ *   @DynamicPropertySource
+ *   static void database(DynamicPropertyRegistry registry) {
+ *       EmbeddedPostgresSupport.register(registry);
+ *   }
+ */
+public final class EmbeddedPostgresSupport {
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresSupport() {
+    }
+
+    /**
+     * Point the JDBC datasource (and R2DBC, for the reactive profile) at the
+     * embedded server.
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres server = server();
+        registry.add("spring.datasource.url", () -> server.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + server.getPort() + "/postgres");
+        registry.add("spring.r2dbc.username", () -> "postgres");
+        registry.add("spring.r2dbc.password", () -> "postgres");
+    }
+
+    /**
+     * Enable sharding with one database per shard on the embedded server
+     * (created on first use; Flyway migrates each of them).
+     */
+    public static void registerShards(DynamicPropertyRegistry registry, int shards) {
+        EmbeddedPostgres server = server();
+        registry.add("taskservice.sharding.enabled", () -> true);
+        for (int i = 0; i < shards; i++) {
+            String database = createDatabase(server, "taskdb_shard" + i);
+            String prefix = "taskservice.sharding.shards[" + i + "].";
+            registry.add(prefix + "url", () -> server.getJdbcUrl("postgres", database));
+            registry.add(prefix + "username", () -> "postgres");
+            registry.add(prefix + "password", () -> "postgres");
+        }
+    }
+
+    private static String createDatabase(EmbeddedPostgres server, String database) {
+        try (Connection connection = server.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            ResultSet exists = statement.executeQuery(
+                    "SELECT 1 FROM pg_database WHERE datname = '" + database + "'");
+            if (!exists.next()) {
+                statement.execute("CREATE DATABASE " + database);
+            }
+            return database;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + database, e);
+        }
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // The process is exiting anyway
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.taskservice.controller;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The /api/v2/tasks endpoints with the reactive profile (R2DBC next to
+ * JPA), against a real PostgreSQL database.
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureMockMvc
+class ReactiveTaskControllerTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    // Unique per test, so tasks of other tests don't match searches
+    private String marker;
+
+    @BeforeEach
+    void createMarker() {
+        marker = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void getTaskByIdReturnsTheTask() throws Exception {
+        Long id = taskService.createTask(new Task("Reactive " + marker, "by id")).getId();
+
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks/{id}", id))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.title").value("Reactive " + marker))
+                .andExpect(jsonPath("$.status").value(TaskStatus.PENDING.name()));
+    }
+
+    @Test
+    void getTaskByIdReturns404ForUnknownTasks() throws Exception {
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks/{id}", Long.MAX_VALUE))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchReturnsMatchingTasksNewestFirst() throws Exception {
+        Long older = taskService.createTask(new Task("Search " + marker + " older", null)).getId();
+        Long newer = taskService.createTask(new Task("Search " + marker + " newer", null)).getId();
+        taskService.createTask(new Task("Not a match", null));
+
+        // No Accept header: JSON
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks/search").param("q", marker.toUpperCase()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(newer))
+                .andExpect(jsonPath("$[1].id").value(older));
+    }
+
+    @Test
+    void jsonListIsOnePageEvenWithoutSize() throws Exception {
+        createTasks(TaskController.MAX_PAGE_SIZE + 1);
+
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks").accept(MediaType.APPLICATION_JSON))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TaskController.MAX_PAGE_SIZE)));
+
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks").param("size", "100000")
+                        .accept(MediaType.APPLICATION_JSON))))
+                .andExpect(jsonPath("$", hasSize(TaskController.MAX_PAGE_SIZE)));
+    }
+
+    @Test
+    void jsonListIsFilteredByStatusAndPaged() throws Exception {
+        Long done = taskService.createTask(new Task("Status " + marker, null)).getId();
+        taskService.updateTaskStatus(done, TaskStatus.COMPLETED);
+
+        mockMvc.perform(asyncDispatch(start(get("/api/v2/tasks").param("status", "COMPLETED")
+                        .param("page", "0").param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(done))
+                .andExpect(jsonPath("$[0].status").value(TaskStatus.COMPLETED.name()));
+    }
+
+    @Test
+    void ndjsonStreamsEveryTask() throws Exception {
+        createTasks(TaskController.MAX_PAGE_SIZE + 1);
+
+        MvcResult result = start(get("/api/v2/tasks").accept(MediaType.APPLICATION_NDJSON));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSizeGreaterThan(TaskController.MAX_PAGE_SIZE);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+    }
+
+    private MvcResult start(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private void createTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            taskService.createTask(new Task("Bulk " + marker + " " + i, null));
+        }
+    }
+}
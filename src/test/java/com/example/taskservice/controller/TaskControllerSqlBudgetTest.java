@@ -0,0 +1,88 @@
+package com.example.taskservice.controller;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.service.TaskService;
+import com.example.taskservice.sql.SqlStatementBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements per request for the main TaskController endpoints, against
+ * a real PostgreSQL database with all migrations applied.
+ *
+ * A budget that fails lists the executed statements; raise it only when
+ * the extra statement is intended.
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class TaskControllerSqlBudgetTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    private Long taskId;
+
+    @BeforeEach
+    void createTask() {
+        taskId = taskService.createTask(new Task("Budget task", "Created by TaskControllerSqlBudgetTest")).getId();
+    }
+
+    @Test
+    void getTaskByIdIsOneQuery() throws Exception {
+        SqlStatementBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/tasks/{id}", taskId))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.title").value("Budget task")));
+    }
+
+    @Test
+    void statusPageIsOneQuery() throws Exception {
+        SqlStatementBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/tasks").param("status", "PENDING").param("page", "0").param("size", "10"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].id").value(taskId)));
+    }
+
+    @Test
+    void updateTaskLoadsAndUpdatesOnce() throws Exception {
+        String body = "{\"title\":\"Renamed\",\"status\":\"IN_PROGRESS\"}";
+        SqlStatementBudget.assertAtMost(2, () ->
+                mockMvc.perform(put("/api/tasks/{id}", taskId).contentType(MediaType.APPLICATION_JSON).content(body))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.status").value(TaskStatus.IN_PROGRESS.name())));
+    }
+
+    @Test
+    void updateTaskStatusLoadsAndUpdatesOnce() throws Exception {
+        SqlStatementBudget.assertAtMost(2, () ->
+                mockMvc.perform(patch("/api/tasks/{id}/status", taskId).param("status", "COMPLETED"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.status").value(TaskStatus.COMPLETED.name())));
+    }
+}
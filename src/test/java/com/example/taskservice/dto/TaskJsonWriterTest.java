@@ -0,0 +1,108 @@
+package com.example.taskservice.dto;
+
+import com.example.taskservice.dto.TaskJsonWriter.TaskArray;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TaskJsonWriter must write exactly what the application's ObjectMapper
+ * writes for the same tasks as TaskDTOs (the JSON clients got before).
+ */
+@JsonTest
+class TaskJsonWriterTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 2, 5, 10, 30);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void writesAllFields() throws IOException {
+        Task task = task(1L, "Learn Docker", "Complete Module 2", TaskStatus.IN_PROGRESS);
+        task.setDueAt(LocalDateTime.of(2026, 2, 10, 17, 0));
+
+        assertSameJson(List.of(task));
+    }
+
+    @Test
+    void writesNullFields() throws IOException {
+        Task task = task(2L, "No description", null, TaskStatus.PENDING);
+        task.setDueAt(null);
+        Task empty = new Task();
+
+        assertSameJson(List.of(task, empty));
+    }
+
+    @Test
+    void escapesStrings() throws IOException {
+        Task quotes = task(3L, "Say \"hi\" \\ 'bye'", "</script> & <b>", TaskStatus.PENDING);
+        Task control = task(4L, "Tab\there\nnew line\r\u0000\u0001\u001f\u007f", "\b\f", TaskStatus.PENDING);
+        Task unicode = task(5L, "Café ☃  ", "Emoji 🚀 and 𝕏", TaskStatus.PENDING);
+
+        assertSameJson(List.of(quotes, control, unicode));
+    }
+
+    @Test
+    void writesTimestampsWithAnyNumberOfFractionDigits() throws IOException {
+        List<Integer> nanos = List.of(0, 100_000_000, 120_000_000, 123_000_000, 123_400_000,
+                123_456_000, 1_000, 123_456_789, 1, 999_999_999);
+        List<Task> tasks = nanos.stream().map(nano -> {
+            Task task = task(6L, "Fraction", null, TaskStatus.COMPLETED);
+            task.setCreatedAt(CREATED.withNano(nano));
+            task.setUpdatedAt(CREATED.withSecond(0).withNano(nano));
+            task.setDueAt(LocalDateTime.of(1, 1, 1, 0, 0).withNano(nano));
+            return task;
+        }).toList();
+
+        assertSameJson(tasks);
+    }
+
+    @Test
+    void writesYearsOutsideFourDigits() throws IOException {
+        Task task = task(7L, "Far future", null, TaskStatus.PENDING);
+        task.setDueAt(LocalDateTime.of(12026, 1, 1, 0, 0, 0, 5_000));
+        task.setUpdatedAt(LocalDateTime.of(-1, 12, 31, 23, 59, 59));
+
+        assertSameJson(List.of(task));
+    }
+
+    @Test
+    void writesAnEmptyArray() throws IOException {
+        assertSameJson(List.of());
+    }
+
+    private void assertSameJson(List<Task> tasks) throws IOException {
+        // As bytes, like the HTTP message converter: Jackson's UTF-8 generator
+        // escapes characters outside the BMP, its String generator doesn't
+        String expected = new String(objectMapper.writeValueAsBytes(tasks.stream().map(TaskDTO::fromEntity).toList()),
+                StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TaskArray array = new TaskJsonWriter(objectMapper).openArray(out)) {
+            tasks.forEach(array::write);
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+
+    private static Task task(Long id, String title, String description, TaskStatus status) {
+        Task task = new Task(title, description);
+        task.setId(id);
+        task.setStatus(status);
+        task.setCreatedAt(CREATED);
+        task.setUpdatedAt(CREATED.plusHours(4).plusMinutes(15));
+        return task;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.taskservice.health;
+
+import com.example.taskservice.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DatabaseReadinessIndicatorTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+
+    @SuppressWarnings("unchecked")
+    private final ShardRouter shardRouter = new ShardRouter(mock(ObjectProvider.class));
+
+    @BeforeEach
+    void healthyDatabase() throws SQLException {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void reusesTheResultWithinTheCacheTtl() throws SQLException {
+        DatabaseReadinessIndicator indicator = indicator(Duration.ofMinutes(1));
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void checksAgainOnceTheCacheTtlHasPassed() throws SQLException {
+        DatabaseReadinessIndicator indicator = indicator(Duration.ZERO);
+
+        indicator.health();
+        indicator.health();
+
+        verify(dataSource, times(2)).getConnection();
+    }
+
+    @Test
+    void isDownWhenNoConnectionCanBeOpened() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThat(indicator(Duration.ZERO).health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void isDownWhenTheConnectionIsInvalid() throws SQLException {
+        when(connection.isValid(anyInt())).thenReturn(false);
+
+        assertThat(indicator(Duration.ZERO).health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    private DatabaseReadinessIndicator indicator(Duration cacheTtl) {
+        return new DatabaseReadinessIndicator(dataSource, shardRouter, cacheTtl, Duration.ofSeconds(1));
+    }
+}
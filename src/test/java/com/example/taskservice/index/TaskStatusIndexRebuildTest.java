@@ -0,0 +1,149 @@
+package com.example.taskservice.index;
+
+import com.example.taskservice.event.TaskStatusChangedEvent;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.repository.TaskRepository;
+import com.example.taskservice.repository.TaskRepository.TaskStatusRow;
+import com.example.taskservice.sharding.ShardDataSources;
+import com.example.taskservice.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rebuilds of TaskStatusIndex with status changes arriving during the
+ * database scan (TaskRepository is mocked; the scan calls back into the
+ * index halfway through).
+ */
+class TaskStatusIndexRebuildTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskStatusIndex index = new TaskStatusIndex(taskRepository, mock(PlatformTransactionManager.class),
+            shardRouter(null), new SimpleMeterRegistry());
+
+    @Test
+    void changesDuringARebuildAreReplayedOnTheNewBitmaps() {
+        scan(row(1, TaskStatus.PENDING), row(2, TaskStatus.PENDING));
+        index.rebuild();
+
+        // The scan still sees the old rows; task 1 completes and task 4 is created meanwhile
+        AtomicReference<Map<TaskStatus, Long>> countsDuringScan = new AtomicReference<>();
+        scanCallingBack(() -> {
+            index.onStatusChanged(new TaskStatusChangedEvent(1L, TaskStatus.COMPLETED));
+            index.onStatusChanged(new TaskStatusChangedEvent(4L, TaskStatus.PENDING));
+            countsDuringScan.set(index.counts());
+        }, row(1, TaskStatus.PENDING), row(2, TaskStatus.PENDING));
+        index.rebuild();
+
+        // Applied right away to the bitmaps in use, and kept after the swap
+        assertThat(countsDuringScan.get()).isEqualTo(counts(2, 0, 1, 0));
+        assertThat(index.counts()).isEqualTo(counts(2, 0, 1, 0));
+        assertThat(index.idsNewestFirst(TaskStatus.PENDING, 0, 10)).containsExactly(4L, 2L);
+        assertThat(index.idsNewestFirst(TaskStatus.COMPLETED, 0, 10)).containsExactly(1L);
+
+        // Replayed once only: the next rebuild takes the database's word
+        scan(row(1, TaskStatus.IN_PROGRESS), row(2, TaskStatus.PENDING));
+        index.rebuild();
+
+        assertThat(index.counts()).isEqualTo(counts(1, 1, 0, 0));
+    }
+
+    @Test
+    void changesBeforeTheFirstBuildAreKept() {
+        index.onStatusChanged(new TaskStatusChangedEvent(5L, TaskStatus.PENDING));
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.counts()).isEqualTo(counts(0, 0, 0, 0));
+
+        scan(row(1, TaskStatus.CANCELLED));
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.counts()).isEqualTo(counts(1, 0, 0, 1));
+    }
+
+    @Test
+    void aFailedRebuildKeepsTheBitmapsInUse() {
+        scan(row(1, TaskStatus.PENDING));
+        index.rebuild();
+
+        when(taskRepository.streamAllStatuses()).thenReturn(Stream.of(row(1, TaskStatus.PENDING)).peek(row -> {
+            index.onStatusChanged(new TaskStatusChangedEvent(1L, TaskStatus.COMPLETED));
+            throw new IllegalStateException("connection lost");
+        }));
+        assertThatThrownBy(index::rebuild).hasMessage("connection lost");
+
+        assertThat(index.counts()).isEqualTo(counts(0, 0, 1, 0));
+
+        // Not replayed later: it was already applied
+        scan(row(1, TaskStatus.CANCELLED));
+        index.rebuild();
+        assertThat(index.counts()).isEqualTo(counts(0, 0, 0, 1));
+    }
+
+    @Test
+    void refusesToStartWithSharding() {
+        ShardRouter sharded = shardRouter(mock(ShardDataSources.class));
+
+        assertThatThrownBy(() -> new TaskStatusIndex(taskRepository, mock(PlatformTransactionManager.class),
+                sharded, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("taskservice.sharding");
+    }
+
+    private void scan(TaskStatusRow... rows) {
+        when(taskRepository.streamAllStatuses()).thenReturn(Stream.of(rows));
+    }
+
+    /**
+     * A scan that runs the callback after its first row.
+     */
+    private void scanCallingBack(Runnable callback, TaskStatusRow... rows) {
+        TaskStatusRow first = rows[0];
+        when(taskRepository.streamAllStatuses()).thenReturn(Stream.of(rows).peek(row -> {
+            if (row == first) {
+                callback.run();
+            }
+        }));
+    }
+
+    private static Map<TaskStatus, Long> counts(long pending, long inProgress, long completed, long cancelled) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        counts.put(TaskStatus.PENDING, pending);
+        counts.put(TaskStatus.IN_PROGRESS, inProgress);
+        counts.put(TaskStatus.COMPLETED, completed);
+        counts.put(TaskStatus.CANCELLED, cancelled);
+        return counts;
+    }
+
+    private static TaskStatusRow row(long id, TaskStatus status) {
+        return new TaskStatusRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public TaskStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ShardRouter shardRouter(ShardDataSources shards) {
+        ObjectProvider<ShardDataSources> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(shards);
+        return new ShardRouter(provider);
+    }
+}
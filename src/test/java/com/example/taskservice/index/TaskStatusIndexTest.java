@@ -0,0 +1,89 @@
+package com.example.taskservice.index;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.repository.TaskRepository;
+import com.example.taskservice.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The status index against PostgreSQL: its counts must match a GROUP BY on
+ * the tasks table, after a rebuild and after every change through the API.
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "taskservice.status-index.enabled=true",
+        "taskservice.status-index.rebuild-interval=PT1H"
+})
+class TaskStatusIndexTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private TaskStatusIndex index;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void rebuild() {
+        // Other test classes share the database, and partition maintenance
+        // may have archived tasks after the startup build
+        index.rebuild();
+    }
+
+    @Test
+    void countsMatchTheDatabaseAfterARebuild() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.counts()).isEqualTo(databaseCounts());
+    }
+
+    @Test
+    void countsFollowCreatesUpdatesAndDeletes() {
+        Long first = taskService.createTask(new Task("Indexed 1", null)).getId();
+        Long second = taskService.createTask(new Task("Indexed 2", null)).getId();
+        Long third = taskService.createTask(new Task("Indexed 3", null)).getId();
+        assertThat(index.counts()).isEqualTo(databaseCounts());
+
+        taskService.updateTaskStatus(first, TaskStatus.IN_PROGRESS);
+        taskService.updateTaskStatus(second, TaskStatus.COMPLETED);
+        taskService.updateTaskStatus(second, TaskStatus.CANCELLED);
+        assertThat(index.counts()).isEqualTo(databaseCounts());
+
+        taskService.deleteTask(third);
+        assertThat(index.counts()).isEqualTo(databaseCounts());
+        assertThat(index.idsNewestFirst(TaskStatus.PENDING, 0, index.counts().get(TaskStatus.PENDING).intValue())).doesNotContain(third);
+        assertThat(index.idsNewestFirst(TaskStatus.CANCELLED, 0, 1)).containsExactly(second);
+
+        // A rebuild finds the same
+        index.rebuild();
+        assertThat(index.counts()).isEqualTo(databaseCounts());
+    }
+
+    private Map<TaskStatus, Long> databaseCounts() {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        taskRepository.countGroupedByStatus().forEach(row -> counts.put(row.getStatus(), row.getTotal()));
+        return counts;
+    }
+}
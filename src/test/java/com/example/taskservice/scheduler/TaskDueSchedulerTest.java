@@ -0,0 +1,64 @@
+package com.example.taskservice.scheduler;
+
+import com.example.taskservice.event.TaskDueDateChangedEvent;
+import com.example.taskservice.scheduler.TaskDueScheduler.DueAction;
+import com.example.taskservice.service.TaskService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TaskDueSchedulerTest {
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final TaskDueScheduler scheduler = new TaskDueScheduler(taskService, DueAction.CANCEL,
+            Duration.ofMinutes(10), Duration.ofMillis(10), 8, 500);
+
+    @Test
+    void firesTasksWhoseDueDatePassed() throws InterruptedException {
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, LocalDateTime.now().plusNanos(20_000_000)));
+
+        Thread.sleep(100);
+        scheduler.tick();
+
+        verify(taskService).fireDueTasks(List.of(1L), true);
+    }
+
+    @Test
+    void firesTasksThatAreAlreadyOverdueOnTheNextTick() {
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, LocalDateTime.now().minusMinutes(1)));
+
+        scheduler.tick();
+
+        verify(taskService).fireDueTasks(List.of(1L), true);
+    }
+
+    @Test
+    void removedDueDateCancelsTheScheduledFiring() throws InterruptedException {
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, LocalDateTime.now().plusNanos(20_000_000)));
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, null));
+
+        Thread.sleep(100);
+        scheduler.tick();
+
+        verify(taskService, never()).fireDueTasks(any(), anyBoolean());
+    }
+
+    @Test
+    void rescheduledTaskIsNotFiredAtItsOldDueDate() throws InterruptedException {
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, LocalDateTime.now().plusNanos(20_000_000)));
+        scheduler.onDueDateChanged(new TaskDueDateChangedEvent(1L, LocalDateTime.now().plusMinutes(5)));
+
+        Thread.sleep(100);
+        scheduler.tick();
+
+        verify(taskService, never()).fireDueTasks(any(), anyBoolean());
+    }
+}
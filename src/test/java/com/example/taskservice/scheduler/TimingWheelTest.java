@@ -0,0 +1,103 @@
+package com.example.taskservice.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    // 10 ms ticks, 8 buckets: the first level spans 80 ms, the second 640 ms
+    private final TimingWheel<String> wheel = new TimingWheel<>(10, 8, START);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void firesWhenTheDeadlineTickHasPassed() {
+        assertThat(wheel.add("a", START + 25)).isTrue();
+
+        wheel.advanceClock(START + 25, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advanceClock(START + 30, expired::add);
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsDeadlinesInThePast() {
+        wheel.advanceClock(START + 100, expired::add);
+
+        assertThat(wheel.add("late", START + 50)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesItemsFromOverflowWheels() {
+        wheel.add("level1", START + 50);
+        wheel.add("level2", START + 300);
+        wheel.add("level3", START + 5_000);
+        assertThat(wheel.size()).isEqualTo(3);
+
+        wheel.advanceClock(START + 299, expired::add);
+        assertThat(expired).containsExactly("level1");
+
+        wheel.advanceClock(START + 310, expired::add);
+        assertThat(expired).containsExactly("level1", "level2");
+
+        wheel.advanceClock(START + 4_999, expired::add);
+        assertThat(expired).containsExactly("level1", "level2");
+
+        wheel.advanceClock(START + 5_010, expired::add);
+        assertThat(expired).containsExactly("level1", "level2", "level3");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesItemsAddedAfterTheClockMovedOn() {
+        wheel.advanceClock(START + 1_234, expired::add);
+        wheel.add("x", START + 2_000);
+
+        wheel.advanceClock(START + 2_010, expired::add);
+        assertThat(expired).containsExactly("x");
+    }
+
+    @Test
+    void neverFiresEarlyAndAtMostOneTickLate() {
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        TimingWheel<Long> timingWheel = new TimingWheel<>(10, 8, START);
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = START + random.nextInt(20_000);
+            deadlines.add(deadline);
+            timingWheel.add(deadline, deadline);
+        }
+
+        int fired = 0;
+        for (long now = START; now <= START + 20_010; now += 1 + random.nextInt(7)) {
+            long time = now;
+            List<Long> due = new ArrayList<>();
+            timingWheel.advanceClock(time, due::add);
+            for (Long deadline : due) {
+                assertThat(deadline).isLessThanOrEqualTo(time);
+                // One tick late, plus the step by which the clock was advanced
+                assertThat(time - deadline).isLessThan(10 + 7);
+            }
+            fired += due.size();
+        }
+
+        assertThat(fired).isEqualTo(deadlines.size());
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThatThrownBy(() -> new TimingWheel<>(0, 8, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<>(10, 1, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.taskservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", true, meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void stopCallers() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        List<Future<String>> callers = startCallers("key", blockingLoader(() -> "value " + loads.get()));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> caller : callers) {
+            assertThat(caller.get(10, TimeUnit.SECONDS)).isEqualTo("value 1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(calls("executed")).isEqualTo(1);
+        assertThat(calls("coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void everyWaitingCallerGetsTheLoadersException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("query failed");
+        List<Future<String>> callers = startCallers("key", blockingLoader(() -> {
+            throw failure;
+        }));
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> caller : callers) {
+            assertThatThrownBy(() -> caller.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void laterCallsLoadAgain() {
+        release.countDown();
+        Supplier<String> loader = blockingLoader(() -> "value " + loads.get());
+
+        assertThat(singleFlight.execute("key", loader)).isEqualTo("value 1");
+        assertThat(singleFlight.execute("key", loader)).isEqualTo("value 2");
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    void callsAfterAFailureLoadAgain() {
+        release.countDown();
+
+        assertThatThrownBy(() -> singleFlight.execute("key", blockingLoader(() -> {
+            throw new IllegalStateException("query failed");
+        }))).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", blockingLoader(() -> "recovered"))).isEqualTo("recovered");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        List<Future<String>> blocked = startCallers("slow", blockingLoader(() -> "slow"));
+        awaitCoalesced(CALLERS - 1);
+
+        assertThat(singleFlight.execute("other", () -> "other")).isEqualTo("other");
+        assertThat(blocked).noneMatch(Future::isDone);
+    }
+
+    @Test
+    void disabledRunsEveryCall() throws Exception {
+        SingleFlight<String, String> disabled = new SingleFlight<>("disabled", false, meterRegistry);
+        CountDownLatch allLoading = new CountDownLatch(2);
+        List<Future<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            callers.add(executor.submit(() -> disabled.execute("key", () -> {
+                allLoading.countDown();
+                await(allLoading);
+                return "value";
+            })));
+        }
+
+        for (Future<String> caller : callers) {
+            assertThat(caller.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+    }
+
+    /**
+     * Counts the load, then blocks until the test releases it.
+     */
+    private Supplier<String> blockingLoader(Supplier<String> result) {
+        return () -> {
+            loads.incrementAndGet();
+            await(release);
+            return result.get();
+        };
+    }
+
+    private List<Future<String>> startCallers(String key, Supplier<String> loader) {
+        List<Future<String>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> singleFlight.execute(key, loader)));
+        }
+        return callers;
+    }
+
+    /**
+     * Coalesced callers are counted right before they start waiting.
+     */
+    private void awaitCoalesced(int callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (calls("coalesced") < callers) {
+            assertThat(System.nanoTime()).as("callers waiting").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get("taskservice.singleflight.calls")
+                .tag("operation", "test")
+                .tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.taskservice.service;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.model.TaskStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Archiving of old monthly partitions against a real PostgreSQL database,
+ * with the default retention of 3 months.
+ *
+ * Old tasks are inserted with SQL (the API always uses the current time),
+ * so they land in tasks_default until the maintenance run creates their
+ * monthly partitions.
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class TaskPartitionManagerTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private TaskPartitionManager partitionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void archivesOldMonthsWithoutActiveTasks() throws Exception {
+        YearMonth oldMonth = YearMonth.now().minusMonths(12);
+        long completed = insertTask(oldMonth, TaskStatus.COMPLETED);
+        long cancelled = insertTask(oldMonth, TaskStatus.CANCELLED);
+        long recent = insertTask(YearMonth.now().minusMonths(1), TaskStatus.COMPLETED);
+
+        partitionManager.maintainPartitions();
+
+        assertThat(parentOf(partitionOf(oldMonth))).isEqualTo("tasks_archive");
+        assertThat(rowsIn("tasks", completed, cancelled)).isZero();
+        assertThat(rowsIn("tasks_archive", completed, cancelled)).isEqualTo(2);
+        assertThat(parentOf(partitionOf(YearMonth.now().minusMonths(1)))).isEqualTo("tasks");
+        assertThat(rowsIn("tasks", recent)).isEqualTo(1);
+        assertThat(rowsIn("tasks_default", completed, cancelled, recent)).isZero();
+
+        // Archived tasks can still be read by ID, but not changed
+        mockMvc.perform(get("/api/tasks/{id}", completed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(TaskStatus.COMPLETED.name()));
+        mockMvc.perform(put("/api/tasks/{id}", completed).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Renamed\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/tasks/{id}/status", completed).param("status", "PENDING"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/tasks/{id}", cancelled))
+                .andExpect(status().isNotFound());
+        assertThat(rowsIn("tasks_archive", completed, cancelled)).isEqualTo(2);
+    }
+
+    @Test
+    void keepsMonthsWithActiveTasksUntilTheyAreFinished() throws Exception {
+        YearMonth oldMonth = YearMonth.now().minusMonths(11);
+        long finished = insertTask(oldMonth, TaskStatus.COMPLETED);
+        long stale = insertTask(oldMonth, TaskStatus.IN_PROGRESS);
+        double blockedBefore = archiveBlocked();
+
+        partitionManager.maintainPartitions();
+
+        assertThat(parentOf(partitionOf(oldMonth))).isEqualTo("tasks");
+        assertThat(rowsIn("tasks", finished, stale)).isEqualTo(2);
+        assertThat(archiveBlocked()).isEqualTo(blockedBefore + 1);
+
+        // Still modifiable; once finished, the next run archives the month
+        mockMvc.perform(patch("/api/tasks/{id}/status", stale).param("status", "COMPLETED"))
+                .andExpect(status().isOk());
+
+        partitionManager.maintainPartitions();
+
+        assertThat(parentOf(partitionOf(oldMonth))).isEqualTo("tasks_archive");
+        assertThat(rowsIn("tasks_archive", finished, stale)).isEqualTo(2);
+        assertThat(archiveBlocked()).isEqualTo(blockedBefore + 1);
+    }
+
+    private long insertTask(YearMonth month, TaskStatus status) {
+        LocalDateTime createdAt = month.atDay(15).atTime(12, 0);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO tasks (title, status, created_at, updated_at) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, "Created in " + month, status.name(), createdAt, createdAt);
+    }
+
+    private static String partitionOf(YearMonth month) {
+        return "tasks_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private String parentOf(String partition) {
+        return jdbcTemplate.queryForObject(
+                "SELECT p.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE c.relname = ?", String.class, partition);
+    }
+
+    private int rowsIn(String table, Long... ids) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id = ANY (?)",
+                Integer.class, (Object) ids);
+    }
+
+    private double archiveBlocked() {
+        return meterRegistry.get("taskservice.partitions.archive_blocked").counter().count();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.taskservice.service;
+
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.store.TaskStore;
+import com.example.taskservice.store.TaskStore.StatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Retries, drops and shutdown of the write-behind with a failing store.
+ */
+class TaskStatusWriteBehindFailureTest {
+
+    private static final int MAX_RETRIES = 2;
+
+    private final TaskStore taskStore = mock(TaskStore.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskStatusWriteBehind writeBehind = new TaskStatusWriteBehind(taskStore,
+            mock(ApplicationEventPublisher.class), meterRegistry, 100, 10, MAX_RETRIES);
+
+    // Every batch passed to the store, as task IDs
+    private final List<List<Long>> attempts = new ArrayList<>();
+    // Which batches fail, and how
+    private Predicate<List<Long>> fails = batch -> false;
+    private RuntimeException failure;
+
+    @BeforeEach
+    void recordAttempts() {
+        doAnswer(invocation -> {
+            Collection<StatusChange> batch = invocation.getArgument(0);
+            List<Long> ids = batch.stream().map(StatusChange::id).toList();
+            attempts.add(ids);
+            if (fails.test(ids)) {
+                throw failure;
+            }
+            return List.copyOf(batch);
+        }).when(taskStore).applyStatusChanges(any(), any());
+    }
+
+    @Test
+    void retriesAFailedBatchOneChangeAtATime() {
+        failFirstAttempts(1);
+        queue(1L, 2L);
+
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertThat(attempts).containsExactly(List.of(1L, 2L), List.of(1L), List.of(2L));
+        assertThat(count("applied")).isEqualTo(2);
+        assertThat(count("dropped")).isZero();
+    }
+
+    @Test
+    void aRejectedChangeOnlyHoldsUpItself() {
+        failWhenContains(1L);
+        queue(1L, 2L);
+
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertThat(attempts).containsExactly(List.of(1L, 2L), List.of(1L), List.of(2L));
+        assertThat(count("applied")).isEqualTo(1);
+    }
+
+    @Test
+    void dropsChangesAfterMaxRetries() {
+        failWhenContains(1L);
+        queue(1L);
+
+        for (int i = 0; i < MAX_RETRIES + 2; i++) {
+            writeBehind.flush();
+        }
+
+        assertThat(attempts).hasSize(MAX_RETRIES + 1);
+        assertThat(count("dropped")).isEqualTo(1);
+        assertThat(meterRegistry.get("taskservice.write_behind.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void stopsTheFlushWhenTheDatabaseIsUnavailable() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskStatusWriteBehind smallBatches = new TaskStatusWriteBehind(taskStore,
+                mock(ApplicationEventPublisher.class), registry, 100, 1, MAX_RETRIES);
+        failFirstAttempts(Integer.MAX_VALUE);
+        smallBatches.offer(1L, TaskStatus.COMPLETED, 0);
+        smallBatches.offer(2L, TaskStatus.COMPLETED, 0);
+
+        smallBatches.flush();
+
+        // The second batch was put back untried
+        assertThat(attempts).hasSize(1);
+        assertThat(registry.get("taskservice.write_behind.pending").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void countsChangesLeftAtShutdownAsDropped() {
+        failFirstAttempts(Integer.MAX_VALUE);
+        queue(1L, 2L);
+
+        writeBehind.close();
+
+        assertThat(count("dropped")).isEqualTo(2);
+        assertThat(meterRegistry.get("taskservice.write_behind.pending").gauge().value()).isZero();
+    }
+
+    private void queue(Long... ids) {
+        for (Long id : ids) {
+            writeBehind.offer(id, TaskStatus.COMPLETED, 0);
+        }
+    }
+
+    /**
+     * The first attempts fail as if the database were unavailable.
+     */
+    private void failFirstAttempts(int count) {
+        fails = batch -> attempts.size() <= count;
+        failure = new CannotCreateTransactionException("database down");
+    }
+
+    /**
+     * Batches containing the task are rejected by the database.
+     */
+    private void failWhenContains(Long id) {
+        fails = batch -> batch.contains(id);
+        failure = new DataIntegrityViolationException("rejected");
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("taskservice.write_behind.changes").tag("outcome", outcome).counter().count();
+    }
+}
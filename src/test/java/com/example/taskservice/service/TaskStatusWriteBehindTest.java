@@ -0,0 +1,169 @@
+package com.example.taskservice.service;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.event.TaskStatusChangedEvent;
+import com.example.taskservice.exception.TaskNotFoundException;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Write-behind against PostgreSQL; flushes are triggered by the tests.
+ *
+ * To interleave a flush with another write, InterleavedWrite runs a hook
+ * when the next TaskStatusChangedEvent is published: that is inside the
+ * transaction of the write (after it read the task, before it commits).
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false",
+        "taskservice.write-behind.enabled=true",
+        "taskservice.write-behind.flush-interval=PT1H"
+})
+@AutoConfigureMockMvc
+@Import(TaskStatusWriteBehindTest.InterleavedWrite.class)
+class TaskStatusWriteBehindTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskStatusWriteBehind writeBehind;
+
+    @Autowired
+    private InterleavedWrite interleavedWrite;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long taskId;
+
+    @BeforeEach
+    void createTask() {
+        taskId = taskService.createTask(new Task("Write-behind task", null)).getId();
+    }
+
+    @Test
+    void appliesQueuedChangesOnFlush() {
+        assertThat(taskService.queueTaskStatus(taskId, TaskStatus.IN_PROGRESS)).isTrue();
+        assertThat(status()).isEqualTo(TaskStatus.PENDING);
+
+        writeBehind.flush();
+
+        assertThat(status()).isEqualTo(TaskStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void appliesOnlyTheLatestChangeOfATask() {
+        taskService.queueTaskStatus(taskId, TaskStatus.IN_PROGRESS);
+        taskService.queueTaskStatus(taskId, TaskStatus.COMPLETED);
+
+        writeBehind.flush();
+
+        assertThat(status()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void skipsChangesOvertakenByAnotherWrite() {
+        taskService.queueTaskStatus(taskId, TaskStatus.COMPLETED);
+        taskService.updateTaskStatus(taskId, TaskStatus.CANCELLED);
+
+        writeBehind.flush();
+
+        assertThat(status()).isEqualTo(TaskStatus.CANCELLED);
+    }
+
+    @Test
+    void appliedChangesDoNotOutdateLaterOnes() {
+        taskService.queueTaskStatus(taskId, TaskStatus.IN_PROGRESS);
+        writeBehind.flush();
+        taskService.queueTaskStatus(taskId, TaskStatus.COMPLETED);
+        writeBehind.flush();
+
+        assertThat(status()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void putConflictsWithAFlushOfTheSameTask() throws Exception {
+        taskService.queueTaskStatus(taskId, TaskStatus.COMPLETED);
+        // The flush commits after the PUT has read the task, before the PUT commits
+        interleavedWrite.next(() -> CompletableFuture.runAsync(writeBehind::flush).join());
+
+        mockMvc.perform(put("/api/tasks/{id}", taskId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Renamed\", \"status\": \"CANCELLED\"}"))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+
+        Task task = taskService.getTaskById(taskId);
+        assertThat(task.getStatus()).isEqualTo(TaskStatus.COMPLETED);
+        assertThat(task.getTitle()).isEqualTo("Write-behind task");
+    }
+
+    @Test
+    void changesQueuedDuringAFlushOfTheSameTaskAreApplied() {
+        taskService.queueTaskStatus(taskId, TaskStatus.IN_PROGRESS);
+        // Queued while the flush writes the task: reads the version before the flush
+        interleavedWrite.next(() -> CompletableFuture.runAsync(() ->
+                taskService.queueTaskStatus(taskId, TaskStatus.COMPLETED)).join());
+
+        writeBehind.flush();
+        assertThat(status()).isEqualTo(TaskStatus.IN_PROGRESS);
+        writeBehind.flush();
+
+        assertThat(status()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void rejectsUnknownTasks() {
+        assertThatThrownBy(() -> taskService.queueTaskStatus(Long.MAX_VALUE, TaskStatus.COMPLETED))
+                .isInstanceOf(TaskNotFoundException.class);
+    }
+
+    private TaskStatus status() {
+        return taskService.getTaskById(taskId).getStatus();
+    }
+
+    /**
+     * Runs a hook once, on the next TaskStatusChangedEvent. Not a
+     * @Configuration, so component scanning of other tests never picks it up.
+     */
+    static class InterleavedWrite {
+
+        private final AtomicReference<Runnable> hook = new AtomicReference<>();
+
+        void next(Runnable write) {
+            hook.set(write);
+        }
+
+        @EventListener
+        void onStatusChanged(TaskStatusChangedEvent event) {
+            Runnable write = hook.getAndSet(null);
+            if (write != null) {
+                write.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.taskservice.sharding;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.store.TaskStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paged lists across two shards (two databases on the embedded server):
+ * pages by number and keyset pages must both walk the merged "newest
+ * first" order without gaps or duplicates, and deep page numbers are
+ * refused.
+ *
+ * Tasks are inserted with SQL on each shard to control created_at: the
+ * shards' tasks interleave in time, unevenly, and some are created at
+ * the same time on both shards (ordered by ID then).
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class ShardedPagingTest {
+
+    private static final int TASKS = 23;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.registerShards(registry, 2);
+    }
+
+    @Autowired
+    private TaskStore taskStore;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final List<Task> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void insertTasks() {
+        assertThat(shardRouter.shardCount()).isEqualTo(2);
+
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        for (int shard = 0; shard < 2; shard++) {
+            shard(shard).update("TRUNCATE tasks");
+        }
+        for (int i = 0; i < TASKS; i++) {
+            // Two of three tasks on shard 1; every fifth at the time of the previous one
+            int shard = i % 3 == 0 ? 0 : 1;
+            LocalDateTime createdAt = start.plusSeconds(i % 5 == 0 ? i - 1 : i);
+            TaskStatus status = i % 2 == 0 ? TaskStatus.PENDING : TaskStatus.COMPLETED;
+            Long id = shard(shard).queryForObject(
+                    "INSERT INTO tasks (title, status, created_at, updated_at) VALUES (?, ?, ?, ?) RETURNING id",
+                    Long.class, "Task " + i, status.name(), createdAt, createdAt);
+
+            Task task = new Task("Task " + i, null);
+            task.setId(id);
+            task.setStatus(status);
+            task.setCreatedAt(createdAt);
+            newestFirst.add(task);
+        }
+        newestFirst.sort(Comparator.comparing(Task::getCreatedAt).thenComparing(Task::getId).reversed());
+    }
+
+    @Test
+    void pagesByNumberWalkTheMergedOrder() {
+        assertThat(allPages(page -> taskStore.findAllNewestFirst(page, 4))).isEqualTo(ids(null));
+        assertThat(allPages(page -> taskStore.findByStatusNewestFirst(TaskStatus.COMPLETED, page, 3)))
+                .isEqualTo(ids(TaskStatus.COMPLETED));
+    }
+
+    @Test
+    void keysetPagesWalkTheMergedOrder() {
+        assertThat(allKeysetPages(4, last -> last == null
+                ? taskStore.findAllNewestFirst(0, 4)
+                : taskStore.findAllNewestFirstAfter(last.getCreatedAt(), last.getId(), 4)))
+                .isEqualTo(ids(null));
+        assertThat(allKeysetPages(3, last -> last == null
+                ? taskStore.findByStatusNewestFirst(TaskStatus.PENDING, 0, 3)
+                : taskStore.findByStatusNewestFirstAfter(TaskStatus.PENDING, last.getCreatedAt(), last.getId(), 3)))
+                .isEqualTo(ids(TaskStatus.PENDING));
+    }
+
+    @Test
+    void forEachNewestFirstWalksTheMergedOrder() {
+        List<Long> ids = new ArrayList<>();
+        taskStore.forEachNewestFirst(task -> ids.add(task.getId()));
+
+        assertThat(ids).isEqualTo(ids(null));
+    }
+
+    @Test
+    void keysetPagesThroughTheApi() throws Exception {
+        Task last = newestFirst.get(4);
+
+        mockMvc.perform(get("/api/tasks").param("size", "3")
+                        .param("afterCreatedAt", last.getCreatedAt().toString())
+                        .param("afterId", last.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(newestFirst.get(5).getId()))
+                .andExpect(jsonPath("$[2].id").value(newestFirst.get(7).getId()));
+    }
+
+    @Test
+    void refusesPagesBeyondTheMaximumOffset() throws Exception {
+        mockMvc.perform(get("/api/tasks").param("page", "200").param("size", "50"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks").param("page", "201").param("size", "50"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks").param("status", "PENDING")
+                        .param("page", String.valueOf(Integer.MAX_VALUE)).param("size", "500"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks").param("afterId", newestFirst.get(0).getId().toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> allPages(Function<Integer, List<Task>> pageQuery) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<Task> tasks = pageQuery.apply(page);
+            if (tasks.isEmpty()) {
+                return ids;
+            }
+            tasks.forEach(task -> ids.add(task.getId()));
+        }
+    }
+
+    /**
+     * Pages until a short one, each after the last task of the previous page.
+     */
+    private List<Long> allKeysetPages(int size, Function<Task, List<Task>> pageAfter) {
+        List<Long> ids = new ArrayList<>();
+        Task last = null;
+        while (true) {
+            List<Task> tasks = pageAfter.apply(last);
+            tasks.forEach(task -> ids.add(task.getId()));
+            if (tasks.size() < size) {
+                return ids;
+            }
+            last = tasks.get(tasks.size() - 1);
+        }
+    }
+
+    private List<Long> ids(TaskStatus status) {
+        return newestFirst.stream()
+                .filter(task -> status == null || task.getStatus() == status)
+                .map(Task::getId)
+                .toList();
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shardRouter.shardDataSource(shard));
+    }
+}
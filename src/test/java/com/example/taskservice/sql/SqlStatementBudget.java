@@ -0,0 +1,52 @@
+package com.example.taskservice.sql;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Assertion helper for integration tests: fail when an action executes
+ * more SQL statements than expected.
+ *
+ * Example (MockMvc runs the request on the test thread):
+ *
+ *   SqlStatementBudget.assertAtMost(2, () ->
+ *           mockMvc.perform(put("/api/tasks/1").contentType(JSON).content(body))
+ *                   .andExpect(status().isOk()));
+ *
+ * Only statements on the calling thread are counted, so this does not work
+ * with TestRestTemplate/WebTestClient against a running server.
+ * Requires the datasource proxy (taskservice.sql.enabled=true, the default).
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    /**
+     * Run the action and throw AssertionError if it executed more than
+     * maxStatements SQL statements.
+     *
+     * @return the action's result
+     */
+    public static <T> T assertAtMost(int maxStatements, Callable<T> action) throws Exception {
+        try (SqlStatementStats stats = SqlStatementStats.start()) {
+            T result = action.call();
+            if (stats.getStatementCount() > maxStatements) {
+                throw new AssertionError(message(maxStatements, stats));
+            }
+            return result;
+        }
+    }
+
+    private static String message(int maxStatements, SqlStatementStats stats) {
+        StringBuilder message = new StringBuilder()
+                .append("Expected at most ").append(maxStatements)
+                .append(" SQL statements but ").append(stats.getStatementCount())
+                .append(" were executed:");
+        List<String> statements = stats.getStatements();
+        for (int i = 0; i < statements.size(); i++) {
+            message.append('\n').append(i + 1).append(". ").append(statements.get(i));
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.taskservice.startup;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import com.example.taskservice.TaskServiceApplication;
+import com.example.taskservice.dto.CreateTaskRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The readiness probe (actuator readiness group, used by k8s/deployment.yaml)
+ * must fail while WarmupRunner is still running, so the pod gets no traffic
+ * before it is warm.
+ *
+ * @SpringBootTest only returns once all runners have finished, so the
+ * application is started on another thread here. WarmupGate pauses the
+ * warm-up halfway: WarmupRunner serializes a CreateTaskRequest with the
+ * application's ObjectMapper, and Spring Boot adds every Jackson Module bean
+ * to that ObjectMapper.
+ */
+class WarmupReadinessTest {
+
+    private static final CountDownLatch warmupPaused = new CountDownLatch(1);
+    private static final CountDownLatch resumeWarmup = new CountDownLatch(1);
+    private static volatile int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    @Timeout(value = 3, unit = TimeUnit.MINUTES)
+    void readinessIsOutOfServiceUntilWarmupHasFinished() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        EmbeddedPostgresSupport.register((name, value) -> properties.put(name, value.get()));
+        properties.put("server.port", 0);
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("taskservice.warmup.enabled", true);
+        properties.put("taskservice.warmup.db-iterations", 1);
+        properties.put("taskservice.warmup.serialization-iterations", 1);
+
+        // As command line arguments: they take precedence over application.yaml
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+
+        CompletableFuture<ConfigurableApplicationContext> started = CompletableFuture.supplyAsync(() ->
+                new SpringApplicationBuilder(TaskServiceApplication.class, WarmupGate.class).run(args));
+        try {
+            while (!warmupPaused.await(100, TimeUnit.MILLISECONDS)) {
+                // Shows the cause if startup failed before the warm-up
+                assertThat(started).isNotDone();
+            }
+
+            // The web server is up, the warm-up isn't done
+            HttpResponse<String> duringWarmup = get("/actuator/health/readiness");
+            assertThat(duringWarmup.statusCode()).isEqualTo(503);
+            assertThat(duringWarmup.body()).contains("\"status\":\"OUT_OF_SERVICE\"");
+            assertThat(get("/health/ready").body()).contains("\"startup\":\"IN_PROGRESS\"");
+            assertThat(started).isNotDone();
+
+            resumeWarmup.countDown();
+            started.get(2, TimeUnit.MINUTES);
+
+            HttpResponse<String> afterWarmup = get("/actuator/health/readiness");
+            assertThat(afterWarmup.statusCode()).isEqualTo(200);
+            assertThat(afterWarmup.body()).contains("\"status\":\"UP\"");
+            assertThat(get("/health/ready").statusCode()).isEqualTo(200);
+        } finally {
+            resumeWarmup.countDown();
+            started.thenAccept(ConfigurableApplicationContext::close).join();
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Extra beans for the application under test. Not a @Configuration, so
+     * component scanning of other tests never picks it up.
+     */
+    static class WarmupGate {
+
+        @Bean
+        ApplicationListener<WebServerInitializedEvent> portListener() {
+            return event -> port = event.getWebServer().getPort();
+        }
+
+        @Bean
+        Module pauseWarmup() {
+            SimpleModule module = new SimpleModule();
+            module.addSerializer(new StdSerializer<>(CreateTaskRequest.class) {
+                @Override
+                public void serialize(CreateTaskRequest value, JsonGenerator generator, SerializerProvider provider)
+                        throws IOException {
+                    warmupPaused.countDown();
+                    try {
+                        resumeWarmup.await(2, TimeUnit.MINUTES);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    generator.writeStartObject();
+                    generator.writeStringField("title", value.getTitle());
+                    generator.writeEndObject();
+                }
+            });
+            return module;
+        }
+    }
+}
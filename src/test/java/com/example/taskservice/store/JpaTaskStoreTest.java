@@ -0,0 +1,60 @@
+package com.example.taskservice.store;
+
+import com.example.taskservice.EmbeddedPostgresSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JpaTaskStore against PostgreSQL (one database).
+ */
+@SpringBootTest(properties = {
+        "taskservice.warmup.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class JpaTaskStoreTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry);
+    }
+
+    @Autowired
+    private JpaTaskStore taskStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void forEachNewestFirstPassesEveryTaskOnceInBatches() {
+        // More than two batches, all created at the same time: batch
+        // boundaries fall between tasks with equal created_at
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("INSERT INTO tasks (title, status, created_at, updated_at) " +
+                        "SELECT 'Batch ' || n, 'PENDING', ?, ? FROM generate_series(1, ?) AS n",
+                createdAt, createdAt, 2 * JpaTaskStore.STREAM_BATCH_SIZE + 7);
+
+        List<Long> ids = new ArrayList<>();
+        List<Boolean> inTransaction = new ArrayList<>();
+        taskStore.forEachNewestFirst(task -> {
+            ids.add(task.getId());
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+        });
+
+        assertThat(ids).containsExactlyElementsOf(jdbcTemplate.queryForList(
+                "SELECT id FROM tasks ORDER BY created_at DESC, id DESC", Long.class));
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(inTransaction).containsOnly(false);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalCodecTest {
+
+    private final JournalCodec codec = new JournalCodec();
+    private final List<Task> puts = new ArrayList<>();
+    private final List<Long> deletes = new ArrayList<>();
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        Task task = new Task();
+        task.setId(42L);
+        task.setTitle("Überprüfen ✓ 日本語");
+        task.setDescription("Line one\nline two");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setCreatedAt(LocalDateTime.of(2024, 1, 31, 23, 59, 59, 123_456_789));
+        task.setUpdatedAt(LocalDateTime.of(2024, 2, 1, 0, 0));
+        task.setDueAt(LocalDateTime.of(1969, 12, 31, 12, 0, 0, 1));
+        task.setDueFiredAt(LocalDateTime.of(2024, 2, 2, 8, 30));
+
+        decode(codec.encodePut(task));
+
+        assertThat(puts).singleElement().usingRecursiveComparison().isEqualTo(task);
+        assertThat(deletes).isEmpty();
+    }
+
+    @Test
+    void roundTripsNulls() throws IOException {
+        Task task = new Task();
+        task.setId(7L);
+        task.setTitle("");
+        task.setStatus(null);
+
+        decode(codec.encodePut(task));
+
+        Task decoded = puts.get(0);
+        assertThat(decoded.getTitle()).isEmpty();
+        assertThat(decoded.getDescription()).isNull();
+        assertThat(decoded.getStatus()).isNull();
+        assertThat(decoded.getCreatedAt()).isNull();
+        assertThat(decoded.getDueFiredAt()).isNull();
+    }
+
+    @Test
+    void roundTripsDeletes() throws IOException {
+        decode(codec.encodeDelete(Long.MAX_VALUE));
+
+        assertThat(deletes).containsExactly(Long.MAX_VALUE);
+        assertThat(puts).isEmpty();
+    }
+
+    @Test
+    void growsTheBufferForLargeRecords() throws IOException {
+        Task task = new Task("x".repeat(100_000), null);
+        task.setId(1L);
+
+        decode(codec.encodePut(task));
+
+        assertThat(puts.get(0).getTitle()).hasSize(100_000);
+    }
+
+    @Test
+    void headerHoldsLengthAndChecksumOfTheBody() {
+        ByteBuffer record = codec.encodeDelete(1);
+        byte[] body = body(record);
+
+        assertThat(record.getInt(0)).isEqualTo(body.length);
+        assertThat(record.getInt(4)).isEqualTo(JournalCodec.checksum(body));
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        byte[] unknownType = body(codec.encodeDelete(1));
+        unknownType[0] = 9;
+        byte[] cutShort = new byte[]{1, 0, 0};
+
+        assertThatThrownBy(() -> JournalCodec.decode(unknownType, puts::add, deletes::add))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> JournalCodec.decode(cutShort, puts::add, deletes::add))
+                .isInstanceOf(IOException.class);
+    }
+
+    private void decode(ByteBuffer record) throws IOException {
+        JournalCodec.decode(body(record), puts::add, deletes::add);
+    }
+
+    private static byte[] body(ByteBuffer record) {
+        byte[] body = new byte[record.getInt(0)];
+        record.get(JournalCodec.HEADER_BYTES, body);
+        return body;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import com.example.taskservice.sharding.ShardRouter;
+import com.example.taskservice.store.TaskStore.StatusChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class JournalTaskStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalTaskStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void open() throws IOException {
+        ShardRouter unsharded = new ShardRouter(mock(ObjectProvider.class));
+        store = new JournalTaskStore(unsharded, new SimpleMeterRegistry(), directory, DataSize.ofKilobytes(64), false);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void keysetPagesMatchPagesByNumber() {
+        for (int i = 1; i <= 12; i++) {
+            Task task = new Task("Task " + i, null);
+            task.setStatus(i % 3 == 0 ? TaskStatus.COMPLETED : TaskStatus.PENDING);
+            store.save(task);
+        }
+        // Gaps in the IDs
+        store.delete(store.findById(5L).orElseThrow());
+        store.delete(store.findById(6L).orElseThrow());
+
+        assertThat(keysetPages(null)).isEqualTo(numberedPages(null)).hasSize(10);
+        assertThat(keysetPages(TaskStatus.COMPLETED)).isEqualTo(numberedPages(TaskStatus.COMPLETED)).hasSize(3);
+    }
+
+    @Test
+    void nothingAfterTheOldestTask() {
+        store.save(new Task("Only task", null));
+        Task only = store.findById(1L).orElseThrow();
+
+        assertThat(store.findAllNewestFirstAfter(only.getCreatedAt(), only.getId(), 10)).isEmpty();
+        assertThat(store.findByStatusNewestFirstAfter(TaskStatus.PENDING, only.getCreatedAt(), only.getId(), 10))
+                .isEmpty();
+    }
+
+    @Test
+    void statusChangesOutdateEarlierReads() {
+        store.save(new Task("Read before the change", null));
+        Task read = store.findById(1L).orElseThrow();
+        long version = store.findVersion(1L).orElseThrow();
+
+        assertThat(store.applyStatusChanges(
+                List.of(new StatusChange(1L, TaskStatus.COMPLETED, version, LocalDateTime.now())), applied -> { }))
+                .hasSize(1);
+        assertThat(store.findVersion(1L)).hasValue(version + 1);
+
+        read.setTitle("Renamed");
+        assertThatThrownBy(() -> store.save(read)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> store.delete(read)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(store.findById(1L).orElseThrow().getStatus()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    private List<Long> numberedPages(TaskStatus status) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<Task> tasks = status == null
+                    ? store.findAllNewestFirst(page, 3)
+                    : store.findByStatusNewestFirst(status, page, 3);
+            if (tasks.isEmpty()) {
+                return ids;
+            }
+            tasks.forEach(task -> ids.add(task.getId()));
+        }
+    }
+
+    private List<Long> keysetPages(TaskStatus status) {
+        List<Long> ids = new ArrayList<>();
+        List<Task> tasks = status == null
+                ? store.findAllNewestFirst(0, 3)
+                : store.findByStatusNewestFirst(status, 0, 3);
+        while (!tasks.isEmpty()) {
+            tasks.forEach(task -> ids.add(task.getId()));
+            Task last = tasks.get(tasks.size() - 1);
+            tasks = status == null
+                    ? store.findAllNewestFirstAfter(last.getCreatedAt(), last.getId(), 3)
+                    : store.findByStatusNewestFirstAfter(status, last.getCreatedAt(), last.getId(), 3);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.taskservice.store.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectMapTest {
+
+    private final LongObjectMap<String> map = new LongObjectMap<>(4);
+
+    @Test
+    void putReplacesAndReturnsThePreviousValue() {
+        assertThat(map.put(1, "a")).isNull();
+        assertThat(map.put(1, "b")).isEqualTo("a");
+
+        assertThat(map.get(1)).isEqualTo("b");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeReturnsTheRemovedValue() {
+        map.put(1, "a");
+
+        assertThat(map.remove(1)).isEqualTo("a");
+        assertThat(map.remove(1)).isNull();
+        assertThat(map.get(1)).isNull();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void keepsEverythingReachableWhileGrowing() {
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo("v" + key);
+        }
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertThat(values).hasSize(10_000);
+    }
+
+    @Test
+    void removalDoesNotBreakProbeRuns() {
+        // Up to 0.7 full, so there are long runs of neighbouring slots
+        LongObjectMap<String> full = new LongObjectMap<>(1000);
+        for (long key = 1; key <= 1000; key++) {
+            full.put(key, "v" + key);
+        }
+
+        for (long key = 1; key <= 1000; key += 2) {
+            assertThat(full.remove(key)).isEqualTo("v" + key);
+        }
+
+        assertThat(full.size()).isEqualTo(500);
+        for (long key = 1; key <= 1000; key++) {
+            assertThat(full.get(key)).isEqualTo(key % 2 == 0 ? "v" + key : null);
+        }
+    }
+
+    @Test
+    void behavesLikeHashMapUnderRandomOperations() {
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Negative keys too; a small range makes removes and replaces frequent
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                String value = "v" + i;
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -1000; key < 1000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThatThrownBy(() -> map.put(1, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.taskservice.store.journal;
+
+import com.example.taskservice.model.Task;
+import com.example.taskservice.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    // Replayed state of the last open()
+    private final Map<Long, String> titles = new TreeMap<>();
+    private final List<Long> deletes = new ArrayList<>();
+
+    @Test
+    void replaysEveryChangeAfterARestart() throws IOException {
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "first"));
+            journal.appendPut(task(2, "second"));
+            journal.appendPut(task(1, "first, renamed"));
+            journal.appendDelete(2);
+        }
+
+        open().close();
+
+        assertThat(titles).containsExactly(Map.entry(1L, "first, renamed"));
+        assertThat(deletes).containsExactly(2L);
+    }
+
+    @Test
+    void continuesInNewFilesWhenSegmentsAreFull() throws IOException {
+        try (TaskJournal journal = open()) {
+            for (long id = 1; id <= 200; id++) {
+                journal.appendPut(task(id, "task " + id));
+            }
+        }
+        assertThat(journalFiles()).hasSizeGreaterThan(1);
+
+        open().close();
+
+        assertThat(titles).hasSize(200).containsEntry(200L, "task 200");
+    }
+
+    @Test
+    void discardsATornRecordAtTheEnd() throws IOException {
+        long tornAt;
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "kept"));
+            tornAt = journal.size();
+            journal.appendPut(task(2, "torn"));
+        }
+        // Crash halfway through the second append: its last bytes never made it
+        overwrite(journalFile(0), tornAt + 12, new byte[8]);
+
+        try (TaskJournal journal = open()) {
+            assertThat(titles).containsOnlyKeys(1L);
+            journal.appendPut(task(3, "appended after recovery"));
+        }
+        open().close();
+
+        assertThat(titles).containsOnlyKeys(1L, 3L);
+    }
+
+    @Test
+    void refusesToStartWhenRecordsFollowADamagedOne() throws IOException {
+        long damagedAt;
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "first"));
+            damagedAt = journal.size();
+            journal.appendPut(task(2, "damaged"));
+            journal.appendPut(task(3, "would be lost"));
+        }
+        flipByte(journalFile(0), damagedAt + JournalCodec.HEADER_BYTES + 3);
+
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("at byte " + damagedAt)
+                .hasMessageContaining("checksum mismatch");
+    }
+
+    @Test
+    void refusesToStartWhenAnOlderJournalIsDamaged() throws IOException {
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "in the first journal"));
+            journal.roll();
+            journal.appendPut(task(2, "in the second journal"));
+        }
+        // The last record of its file, but a later journal exists: not a torn append
+        flipByte(journalFile(0), JournalCodec.HEADER_BYTES + 3);
+
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining(journalFile(0).getFileName().toString());
+    }
+
+    @Test
+    void refusesToStartOnAnInvalidRecordLength() throws IOException {
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "first"));
+        }
+        overwrite(journalFile(0), 0, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("invalid record length");
+    }
+
+    @Test
+    void recoversFromACrashBetweenRollAndSnapshot() throws IOException {
+        Path unfinishedSnapshot;
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "before roll"));
+            long generation = journal.roll();
+            journal.appendPut(task(2, "after roll"));
+            // Crash while the snapshot for the new generation was being written
+            unfinishedSnapshot = directory.resolve(snapshotFile(generation).getFileName() + ".tmp");
+            Files.write(unfinishedSnapshot, new byte[]{1, 2, 3});
+        }
+
+        try (TaskJournal journal = open()) {
+            assertThat(titles).containsOnlyKeys(1L, 2L);
+            journal.appendPut(task(3, "after restart"));
+        }
+        assertThat(unfinishedSnapshot).doesNotExist();
+
+        open().close();
+
+        assertThat(titles).containsOnlyKeys(1L, 2L, 3L);
+    }
+
+    @Test
+    void restartsFromTheNewestSnapshot() throws IOException {
+        try (TaskJournal journal = open()) {
+            journal.appendPut(task(1, "one"));
+            journal.appendPut(task(2, "two"));
+            journal.appendPut(task(3, "three"));
+            journal.appendDelete(3);
+
+            long generation = journal.roll();
+            journal.appendPut(task(4, "four"));
+            journal.writeSnapshot(generation, List.of(task(1, "one"), task(2, "two")), 3);
+            journal.appendDelete(1);
+        }
+        assertThat(journalFiles()).containsExactly(journalFile(1));
+
+        open().close();
+
+        assertThat(titles).containsOnlyKeys(2L, 4L);
+        // The lastId marker first, then the delete from the journal
+        assertThat(deletes).containsExactly(3L, 1L);
+    }
+
+    private TaskJournal open() throws IOException {
+        titles.clear();
+        deletes.clear();
+        return TaskJournal.open(directory, SEGMENT_SIZE, false,
+                task -> titles.put(task.getId(), task.getTitle()),
+                id -> {
+                    titles.remove(id);
+                    deletes.add(id);
+                });
+    }
+
+    private static Task task(long id, String title) {
+        Task task = new Task(title, null);
+        task.setId(id);
+        task.setStatus(TaskStatus.PENDING);
+        task.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        task.setUpdatedAt(task.getCreatedAt());
+        return task;
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    private Path journalFile(long generation) {
+        return directory.resolve(String.format("journal-%010d.log", generation));
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(String.format("snapshot-%010d.dat", generation));
+    }
+
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) ~one.get(0)).rewind();
+            channel.write(one, position);
+        }
+    }
+}